@@ -1,8 +1,17 @@
 package com.softwareplumbers.common.immutablelist;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.BiFunction;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
@@ -25,6 +34,45 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
         T transform(T part) throws E;
     }
 	
+    /** Fixed rendering of list elements to a string, whose results may be cached.
+     * 
+     * Nodes cache the string produced by the last renderer used with them; renderers are
+     * compared by identity, so a renderer should be created once and reused.
+     * 
+     * @param <T> Value type of list
+     */
+    public static final class Renderer<T> {
+        public final Function<? super T,String> converter;
+        public final String separator;
+        public final String escape;
+        
+        /** Create a new renderer.
+         * 
+         * @param converter function to convert T to a string
+         * @param separator string to place between elements of list
+         * @param escape string to prefix separator with if found in the elements of the list
+         */
+        public Renderer(Function<? super T,String> converter, String separator, String escape) {
+            this.converter = converter;
+            this.separator = separator;
+            this.escape = escape;
+        }
+    }
+    
+    /** Renderer used by toString */
+    public static final Renderer<Object> DEFAULT_RENDERER = new Renderer<>(Object::toString, ".", DEFAULT_ESCAPE);
+    
+    /** Values cached in a node: the last rendering, and the last derived value (such as a folded name) */
+    private static final class NodeCache {
+        final Renderer<?> renderer;
+        final String text;
+        final Object key;
+        final Object derived;
+        NodeCache(Renderer<?> renderer, String text, Object key, Object derived) { 
+            this.renderer = renderer; this.text = text; this.key = key; this.derived = derived; 
+        }
+    }
+	
 	/** First part of list.
 	 * 
 	 */
@@ -35,6 +83,13 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
 	 */
 	public final T part;
 	
+	/** Cached result of the last call to render, and the last derived value.
+	 * 
+	 * NodeCache is immutable, so a racing read sees either null or a complete value;
+	 * racing writes may lose one of the cached values, which is then recomputed.
+	 */
+	private NodeCache cache;
+	
 	protected AbstractImmutableList(V parent, T part) {
 		this.parent = parent;
 		this.part = part;
@@ -87,9 +142,19 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
 	@Override
 	public boolean equals(Object other) {
 		if (other == null) return false;
+		if (other instanceof ListSlice) return other.equals(this);
 		return other instanceof AbstractImmutableList ? 0 == compareTo((V)other) : false;
 	}
 	
+    /** Compare this list with a slice.
+     * 
+     * @param other Slice to compare
+     * @return the same result as compareTo(other.compact())
+     */
+	public int compareTo(ListSlice<T,?> other) {
+		return -other.compareTo(this);
+	}
+	
 	/** Apply accumulator function in depth-first order
 	 * 
 	 * @param <U> value type of accumulator
@@ -130,6 +195,77 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
         return parent.transform(transformer).add(transformer.transform(part));        
     }
 	
+    /** Transform each element of a list asynchronously
+     * 
+     * Each part is submitted to the executor as a separate task, so that an expensive 
+     * transformer can run on many parts at once. The list is rebuilt in order once all 
+     * parts have been transformed. If the transformer throws, the returned future 
+     * completes exceptionally with a CompletionException whose cause is the thrown 
+     * exception.
+     * 
+     * @param <E> Exception type thrown by transformer function
+     * @param transformer function to transform each part of this list
+     * @param executor executor on which to run the transformer (e.g. a virtual thread executor)
+     * @return a future list with each element of this list transformed by the transformer 
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> CompletableFuture<V> transformAsync(Transformer<T,E> transformer, Executor executor) {
+        if (isEmpty()) return CompletableFuture.completedFuture((V)this);
+        List<CompletableFuture<T>> parts = new ArrayList<>();
+        for (AbstractImmutableList<T,?> current = this; !current.isEmpty(); current = current.parent) {
+            final T toTransform = current.part;
+            parts.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return transformer.transform(toTransform);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor));
+        }
+        Collections.reverse(parts);
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(ignored -> {
+            V result = getEmpty();
+            for (CompletableFuture<T> part : parts) result = result.add(part.join());
+            return result;
+        });
+    }
+    
+    /** Transform each element of a list asynchronously, using the common fork-join pool
+     * 
+     * @param <E> Exception type thrown by transformer function
+     * @param transformer function to transform each part of this list
+     * @return a future list with each element of this list transformed by the transformer 
+     */
+    public <E extends Exception> CompletableFuture<V> transformAsync(Transformer<T,E> transformer) {
+        return transformAsync(transformer, ForkJoinPool.commonPool());
+    }
+    
+    /** Transform each element of a list in parallel
+     * 
+     * Equivalent to transform(transformer), but runs the transformer on each part
+     * as a separate task on the given executor, and waits for all to complete.
+     * 
+     * @param <E> Exception type thrown by transformer function
+     * @param transformer function to transform each part of this list
+     * @param executor executor on which to run the transformer (e.g. a virtual thread executor)
+     * @return a list with each element of this list transformed by the transformer 
+     * @throws E Exception propagated from transformer
+     */
+    @SuppressWarnings("unchecked")
+    public <E extends Exception> V transformParallel(Transformer<T,E> transformer, Executor executor) throws E {
+        try {
+            return transformAsync(transformer, executor).join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException)cause;
+            if (cause instanceof Error) throw (Error)cause;
+            // The transformer can only throw E, or unchecked exceptions handled above
+            throw (E)cause;
+        }
+    }
+	
 	/** Find if any part satisfies a predicate
 	 * 
 	 * @param predicate test to satisfy
@@ -141,6 +277,21 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
 		int result = parent.indexFromEnd(predicate);
 		return (result < 0) ? result : 1 + result;
 	}
+
+    /** Find the first part (counting from start) which satisfies a predicate.
+     * 
+     * Walks the list once, testing each part exactly once.
+     * 
+     * @param predicate test to satisfy
+     * @return index from end of the first matching part, or -1 if no part matches
+     */
+    private int firstIndexFromEnd(Predicate<T> predicate) {
+        int result = -1;
+        int index = 0;
+        for (AbstractImmutableList<T,V> node = this; !node.isEmpty(); node = node.parent, index++)
+            if (predicate.test(node.part)) result = index;
+        return result;
+    }
 	
     /** Get elements up to the last one matching the predicate. 
      * 
@@ -198,11 +349,8 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
      * @return Elements from the root of the list up to and including the first one matching the predicate.
      */    
     public V upTo(Predicate<T> predicate) {
-        V result = upToLast(predicate);
-        if (result.isEmpty()) return result;
-        V prev = result.parent.upTo(predicate);
-        if (prev.isEmpty()) return result;
-        return prev;
+        int index = firstIndexFromEnd(predicate);
+        return index < 0 ? getEmpty() : leftFromEnd(index);
     }
     
     /** Get elements after the last one matching the predicate.
@@ -226,22 +374,15 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
      * @param predicate
      * @return Elements from after the last one matching the predicate, up to the end of the list.
      */
+    @SuppressWarnings("unchecked")
     public V fromLast(Predicate<T> predicate) {
-        if (isEmpty()) return (V)this;
-        if (predicate.test(part)) {
-            return getEmpty();
-        }
-        V pr = parent.fromLast(predicate);
-        return pr == parent ? (V)this : pr.add(part);
+        int index = indexFromEnd(predicate);
+        return index < 0 ? (V)this : right(index);
     }
     
     protected V fromLastInclusive(Predicate<T> predicate) {
-        if (isEmpty()) return (V)this;
-        if (predicate.test(part)) {
-            return getEmpty().add(part);
-        }
-        V pr = parent.fromLastInclusive(predicate);
-        return pr.isEmpty() ? pr : pr.add(part);        
+        int index = indexFromEnd(predicate);
+        return index < 0 ? getEmpty() : right(index + 1);
     }
     
     /** Get elements after the first one matching the predicate.
@@ -265,30 +406,15 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
      * @param predicate
      * @return Elements from the first one matching the predicate, up to the end of the list.
      */
+    @SuppressWarnings("unchecked")
     public V from (Predicate<T> predicate) {
-        if (isEmpty()) return (V)this;
-        V more = parent.from(predicate);
-        if (more == parent) {
-            if (predicate.test(part))
-                return getEmpty(); 
-            else 
-                return (V)this;
-        } else {
-            return more.add(part);
-        }
+        int index = firstIndexFromEnd(predicate);
+        return index < 0 ? (V)this : right(index);
     }
     
     protected V fromInclusive (Predicate<T> predicate) {
-        if (isEmpty()) return (V)this;
-        V more = parent.fromInclusive(predicate);
-        if (more.isEmpty()) {
-            if (predicate.test(part))
-                return getEmpty().add(part); 
-            else 
-                return more;
-        } else {
-            return more.add(part);
-        }
+        int index = firstIndexFromEnd(predicate);
+        return index < 0 ? getEmpty() : right(index + 1);
     }
     
 	/** Find if any part satisfies a predicate
@@ -297,7 +423,11 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
 	 * @return smallest index (from start) of part matching predicate
 	 */
 	public int indexOf(Predicate<T> predicate) {
-		return reverse().indexFromEnd(predicate);
+        int result = -1;
+        int size = 0;
+        for (AbstractImmutableList<T,V> node = this; !node.isEmpty(); node = node.parent, size++)
+            if (predicate.test(node.part)) result = size;
+        return result < 0 ? result : size - 1 - result;
 	}
 	
 	/** Match this list against another using a predicate
@@ -402,8 +532,141 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
 		return result;
 	}
 	
-    private enum ParseState { BEGIN, SEPARATOR_AT_START, JOIN, NEXT }
+    private void checkIndex(int index, int limit) {
+        if (index < 0 || index >= limit) throw new IndexOutOfBoundsException(Integer.toString(index));
+    }
+    
+    /** Rebuild the list with the last n parts passed through an edit.
+     * 
+     * Reuses the nodes before the suffix; only the suffix is copied.
+     * 
+     * @param n number of parts in the suffix to rebuild
+     * @param edit called with the list before the suffix, and the parts of the suffix in order
+     * @return the rebuilt list
+     */
+    private V editSuffix(int n, BiFunction<V,Iterator<T>,V> edit) {
+        Iterator<T> suffix = new ForwardIterator<>(this, n);
+        return edit.apply(leftFromEnd(n), suffix);
+    }
+    
+    /** Replace the part at an index.
+     * 
+     * @param index index of part to replace, counting from start
+     * @param value new value of part
+     * @return A list with the part at index replaced, sharing the nodes before index with this list
+     */
+    public V set(int index, T value) {
+        int size = size();
+        checkIndex(index, size);
+        return editSuffix(size - index, (prefix, suffix) -> {
+            suffix.next();
+            V result = prefix.add(value);
+            while (suffix.hasNext()) result = result.add(suffix.next());
+            return result;
+        });
+    }
+    
+    /** Insert a part at an index.
+     * 
+     * @param index index at which to insert, counting from start (size() to add at end)
+     * @param value part to insert
+     * @return A list with value at index, sharing the nodes before index with this list
+     */
+    public V insert(int index, T value) {
+        int size = size();
+        checkIndex(index, size + 1);
+        return editSuffix(size - index, (prefix, suffix) -> {
+            V result = prefix.add(value);
+            while (suffix.hasNext()) result = result.add(suffix.next());
+            return result;
+        });
+    }
+    
+    /** Remove the part at an index.
+     * 
+     * @param index index of part to remove, counting from start
+     * @return A list without the part at index, sharing the nodes before index with this list
+     */
+    public V remove(int index) {
+        int size = size();
+        checkIndex(index, size);
+        return editSuffix(size - index, (prefix, suffix) -> {
+            suffix.next();
+            V result = prefix;
+            while (suffix.hasNext()) result = result.add(suffix.next());
+            return result;
+        });
+    }
+    
+    /** Replace several parts in one pass.
+     * 
+     * @param values new values, keyed by index of the part to replace (counting from start)
+     * @return A list with the given parts replaced, sharing the nodes before the first index with this list
+     */
+    @SuppressWarnings("unchecked")
+    public V setAll(Map<Integer,? extends T> values) {
+        if (values.isEmpty()) return (V)this;
+        int size = size();
+        int first = size;
+        for (int index : values.keySet()) {
+            checkIndex(index, size);
+            first = Math.min(first, index);
+        }
+        int start = first;
+        return editSuffix(size - start, (prefix, suffix) -> {
+            V result = prefix;
+            for (int index = start; suffix.hasNext(); index++) {
+                T part = suffix.next();
+                result = result.add(values.containsKey(index) ? values.get(index) : part);
+            }
+            return result;
+        });
+    }
+    
+    /** Insert several parts at an index.
+     * 
+     * @param index index at which to insert, counting from start (size() to add at end)
+     * @param values parts to insert, in order
+     * @return A list with values starting at index, sharing the nodes before index with this list
+     */
+    public V insertAll(int index, Iterable<T> values) {
+        int size = size();
+        checkIndex(index, size + 1);
+        return editSuffix(size - index, (prefix, suffix) -> {
+            V result = prefix.addAll(values);
+            while (suffix.hasNext()) result = result.add(suffix.next());
+            return result;
+        });
+    }
     
+    /** Remove several parts in one pass.
+     * 
+     * @param indices indices of parts to remove, counting from start
+     * @return A list without the given parts, sharing the nodes before the first index with this list
+     */
+    @SuppressWarnings("unchecked")
+    public V removeAll(int... indices) {
+        if (indices.length == 0) return (V)this;
+        int size = size();
+        int[] sorted = indices.clone();
+        Arrays.sort(sorted);
+        checkIndex(sorted[0], size);
+        checkIndex(sorted[sorted.length - 1], size);
+        return editSuffix(size - sorted[0], (prefix, suffix) -> {
+            V result = prefix;
+            int next = 0;
+            for (int index = sorted[0]; suffix.hasNext(); index++) {
+                T part = suffix.next();
+                if (next < sorted.length && sorted[next] == index) {
+                    while (next < sorted.length && sorted[next] == index) next++;
+                } else {
+                    result = result.add(part);
+                }
+            }
+            return result;
+        });
+    }
+	
     private static final String unescape(String escaped, String escape) {
         String regexEscape = escape.replace("\\", "\\\\");
         return escaped
@@ -411,6 +674,123 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
             .replaceAll(regexEscape + regexEscape, escape);
     }
     
+    /** Check the separator and escape given to the literal scanner.
+     * 
+     * An empty separator or escape would match at every position.
+     */
+    static void checkLiteral(String separator, String escape) {
+        if (separator.isEmpty()) throw new IllegalArgumentException("separator must not be empty");
+        if (escape.isEmpty()) throw new IllegalArgumentException("escape must not be empty");
+    }
+    
+    private static boolean matchesAt(CharSequence source, int index, String token) {
+        if (index + token.length() > source.length()) return false;
+        for (int i = 0; i < token.length(); i++)
+            if (source.charAt(index + i) != token.charAt(i)) return false;
+        return true;
+    }
+    
+    /** Remove escapes from a region of a string.
+     * 
+     * An escape causes the separator, escape, or character following it to be taken literally.
+     */
+    static StringBuilder unescape(CharSequence escaped, int start, int end, String separator, String escape) {
+        StringBuilder result = new StringBuilder(end - start);
+        int i = start;
+        while (i < end) {
+            if (matchesAt(escaped, i, escape)) {
+                i += escape.length();
+                if (i >= end) break;
+                String literal = matchesAt(escaped, i, separator) ? separator : matchesAt(escaped, i, escape) ? escape : null;
+                if (literal == null) {
+                    result.append(escaped.charAt(i++));
+                } else {
+                    result.append(literal);
+                    i += literal.length();
+                }
+            } else {
+                result.append(escaped.charAt(i++));
+            }
+        }
+        return result;
+    }
+    
+    /** Find the bounds of each segment in a string.
+     * 
+     * The string is scanned once, matching separator and escape literally. Empty segments 
+     * are ignored.
+     * 
+     * @return array holding start, end, and a flag (1 if the segment contains escapes) for each segment
+     * @throws IllegalArgumentException if separator or escape is empty
+     */
+    static int[] segmentBounds(CharSequence toParse, String separator, String escape) {
+        checkLiteral(separator, escape);
+        int[] bounds = new int[12];
+        int count = 0;
+        int length = toParse.length();
+        int start = 0;
+        boolean escaped = false;
+        int i = 0;
+        while (i <= length) {
+            if (i == length || matchesAt(toParse, i, separator)) {
+                // A lone escape at the very end of the string is dropped, leaving nothing
+                boolean empty = i == start || (escaped && i - start == escape.length() && i == length);
+                if (!empty) {
+                    if (count + 3 > bounds.length) bounds = Arrays.copyOf(bounds, bounds.length * 2);
+                    bounds[count++] = start;
+                    bounds[count++] = i;
+                    bounds[count++] = escaped ? 1 : 0;
+                }
+                i += separator.length();
+                start = i;
+                escaped = false;
+            } else if (matchesAt(toParse, i, escape)) {
+                escaped = true;
+                i += escape.length();
+                if (matchesAt(toParse, i, separator)) i += separator.length();
+                else if (matchesAt(toParse, i, escape)) i += escape.length();
+                else if (i < length) i++;
+            } else {
+                i++;
+            }
+        }
+        return Arrays.copyOf(bounds, count);
+    }
+    
+	/** Add several elements as parsed from a string.
+     * 
+     * The string is scanned once; segments which contain no escapes are passed to the
+     * segment pool as a region of the original string, so that a pool hit allocates no
+     * new String. Empty segments are ignored.
+     * 
+     * Unlike addParsed(converter, toParse, separator, escape), the separator is matched
+     * literally rather than as a regular expression, and an escaped escape may directly
+     * precede a separator, so that any result of join parses back to the same list.
+	 * 
+     * @param converter function to convert strings to elements
+	 * @param toParse string to parse
+	 * @param separator separator to break up name parts (not a regular expression)
+     * @param escape escape character, which is used as prefix for separator
+     * @param pool pool used to obtain canonical string for each segment
+	 * @return list with the leftmost element of string as root
+     * @throws IllegalArgumentException if separator or escape is empty
+	 */
+	public V addParsed(Function<String,T> converter, CharSequence toParse, String separator, String escape, SegmentPool pool) {
+        @SuppressWarnings("unchecked") V result = (V)this;
+        int[] bounds = segmentBounds(toParse, separator, escape);
+        for (int i = 0; i < bounds.length; i += 3) {
+            String segment;
+            if (bounds[i+2] == 0) {
+                segment = pool.intern(toParse, bounds[i], bounds[i+1]);
+            } else {
+                StringBuilder unescaped = unescape(toParse, bounds[i], bounds[i+1], separator, escape);
+                segment = pool.intern(unescaped, 0, unescaped.length());
+            }
+            result = result.add(converter.apply(segment));
+        }
+        return result;
+	}
+    
 	/** Add several elements as parsed from a string.
 	 * 
      * @param converter function to convert strings to elements
@@ -442,14 +822,66 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
         return addParsed(converter, toParse, separator, DEFAULT_ESCAPE);
     }
 	
+	/** Join elements of the list using a renderer, caching the result.
+	 * 
+	 * Equivalent to join(renderer.converter, renderer.separator, renderer.escape). The 
+	 * result is cached in this node, and is built from the (cached) rendering of the
+	 * parent list; thus rendering a list again is O(1), and rendering a new child of a 
+	 * list that has already been rendered only requires the new part to be rendered.
+	 * Only the most recently used renderer is cached in each node.
+	 * 
+	 * @param renderer Renderer to use
+	 * @return concatenate elements of list with separator between them.
+	 */
+	public String render(Renderer<? super T> renderer) {
+		if (isEmpty()) return "";
+		NodeCache cached = cache;
+		if (cached != null && cached.renderer == renderer) return cached.text;
+		String parentText = parent.render(renderer);
+		String partText = escape(renderer.converter.apply(part), renderer.separator, renderer.escape);
+		String text = parentText.isEmpty() ? partText : parentText + renderer.separator + partText;
+		cached = cache;
+		cache = cached == null ? new NodeCache(renderer, text, null, null) : new NodeCache(renderer, text, cached.key, cached.derived);
+		return text;
+	}
+	
+	boolean isRenderedBy(Renderer<?> renderer) {
+		NodeCache cached = cache;
+		return cached != null && cached.renderer == renderer;
+	}
+	
+	/** Get a value derived from this node by a subclass, cached alongside the rendering.
+	 * 
+	 * @param key Key identifying how the value was derived (compared by identity)
+	 * @return the value cached with key, or null if the last value cached has a different key
+	 */
+	Object derived(Object key) {
+		NodeCache cached = cache;
+		return cached != null && cached.key == key ? cached.derived : null;
+	}
+	
+	/** Cache a value derived from this node, replacing any value cached with another key.
+	 * 
+	 * @param key Key identifying how the value was derived
+	 * @param derived Value to cache
+	 */
+	void cacheDerived(Object key, Object derived) {
+		NodeCache cached = cache;
+		cache = cached == null ? new NodeCache(null, null, key, derived) : new NodeCache(cached.renderer, cached.text, key, derived);
+	}
+	
 	/** Default string representation
 	 * 
-	 * Equivalent to join(Object::toString, ".")
+	 * Equivalent to join(Object::toString, "."). Rendering is cached only if this list,
+	 * or its parent, has been rendered with DEFAULT_RENDERER; so caching can be enabled 
+	 * for a list and all its descendants by calling render(DEFAULT_RENDERER) once.
 	 * 
 	 * @return join(".")
 	 */
     @Override
 	public String toString() {
+		if (!isEmpty() && (isRenderedBy(DEFAULT_RENDERER) || parent.isRenderedBy(DEFAULT_RENDERER)))
+			return render(DEFAULT_RENDERER);
 		return join(Object::toString, ".");
 	}
 	
@@ -508,6 +940,47 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
 		return parent.right(n-1).add(part);
 	}
 	
+    /** Return a view of the n rightmost elements of the list.
+     * 
+     * Unlike right(n), creates no new nodes; the view shares the nodes of this list.
+     * 
+     * @param n count of elements retained
+     * @return a slice equal to right(n)
+     */
+	@SuppressWarnings("unchecked")
+	public ListSlice<T,V> rightSlice(int n) {
+		return new ListSlice<>((V)this, n);
+	}
+
+    /** Return a view of the elements of the list from the given index, counting from start.
+     * 
+     * @param index index of first retained part
+     * @return a slice equal to rightFromStart(index)
+     */
+	public ListSlice<T,V> rightFromStartSlice(int index) {
+		return rightSlice(size()-index);
+	}
+
+    /** Return a view of the elements after the first one matching the predicate.
+     * 
+     * @param predicate
+     * @return a slice equal to from(predicate)
+     */
+	public ListSlice<T,V> fromSlice(Predicate<T> predicate) {
+		int index = firstIndexFromEnd(predicate);
+		return rightSlice(index < 0 ? Integer.MAX_VALUE : index);
+	}
+
+    /** Return a view of the elements after the last one matching the predicate.
+     * 
+     * @param predicate
+     * @return a slice equal to fromLast(predicate)
+     */
+	public ListSlice<T,V> fromLastSlice(Predicate<T> predicate) {
+		int index = indexFromEnd(predicate);
+		return rightSlice(index < 0 ? Integer.MAX_VALUE : index);
+	}
+
     /** Return what is left of the list after the rightmost n elements have been removed.
      * 
      * @param n count of elements removed
@@ -580,12 +1053,47 @@ public abstract class AbstractImmutableList<T extends Comparable<T>, V extends A
 		}
 	}
 	
+	/** Iterator over parts from first to last
+	 * 
+	 * Takes a snapshot of the parts in a single array, rather than building a
+	 * reversed copy of the list.
+	 */
+	static class ForwardIterator<T extends Comparable<T>> implements Iterator<T> {
+		
+		final Object[] parts;
+		int index = 0;
+		
+		public ForwardIterator(AbstractImmutableList<T,?> list) { 
+			this(list, list.size());
+		}
+		
+		/** Iterate over the last count parts of a list */
+		ForwardIterator(AbstractImmutableList<T,?> list, int count) { 
+			parts = new Object[count];
+			int i = parts.length;
+			for (AbstractImmutableList<T,?> current = list; i > 0; current = current.parent)
+				parts[--i] = current.part;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return index < parts.length;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public T next() {
+			if (index >= parts.length) throw new NoSuchElementException();
+			return (T)parts[index++];
+		}
+	}
+	
 	/** Iterate over parts from first to last
 	 * 
 	 */
 	@Override
 	public Iterator<T> iterator() {
-		return reverse().reverseIterator();
+		return new ForwardIterator<>(this);
 	}
 	
 	/** Iterate over parts from last to first
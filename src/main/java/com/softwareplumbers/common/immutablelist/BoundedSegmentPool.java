@@ -0,0 +1,81 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/** Bounded, lock-free segment pool.
+ *
+ * Strings are held in a fixed size table indexed by hash code, with two candidate
+ * slots per string. Lookup computes the hash directly over the source characters and
+ * compares candidates in place, so a hit allocates nothing. On a miss the new string
+ * replaces whatever was in one of its candidate slots; thus the pool never grows
+ * beyond its capacity, and segments which are no longer used are eventually evicted
+ * by those which are.
+ *
+ * Segments longer than the configured maximum length are never pooled.
+ *
+ * @author Jonathan Essex
+ */
+public class BoundedSegmentPool implements SegmentPool {
+
+    /** Default maximum length of a pooled segment. */
+    public static final int DEFAULT_MAX_LENGTH = 64;
+
+    private final AtomicReferenceArray<String> slots;
+    private final int mask;
+    private final int maxLength;
+
+    /** Create a new pool.
+     *
+     * @param capacity Maximum number of strings held (rounded up to a power of two)
+     * @param maxLength Maximum length of string which will be pooled
+     */
+    public BoundedSegmentPool(int capacity, int maxLength) {
+        if (capacity < 2) throw new IllegalArgumentException("capacity must be at least 2");
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxLength = maxLength;
+    }
+
+    private static int hash(CharSequence source, int start, int end) {
+        int hash = 0;
+        for (int i = start; i < end; i++) hash = 31 * hash + source.charAt(i);
+        return hash;
+    }
+
+    private static boolean matches(String candidate, CharSequence source, int start, int end) {
+        if (candidate == null || candidate.length() != end - start) return false;
+        for (int i = start, j = 0; i < end; i++, j++)
+            if (candidate.charAt(j) != source.charAt(i)) return false;
+        return true;
+    }
+
+    @Override
+    public String intern(CharSequence source, int start, int end) {
+        if (end - start > maxLength) return source.subSequence(start, end).toString();
+        int hash = hash(source, start, end);
+        int first = (hash ^ (hash >>> 16)) & mask;
+        int second = first ^ 1;
+        String candidate = slots.get(first);
+        if (matches(candidate, source, start, end)) return candidate;
+        String alternate = slots.get(second);
+        if (matches(alternate, source, start, end)) return alternate;
+        String result = source.subSequence(start, end).toString();
+        // Prefer an empty slot; otherwise use the hash to choose a victim
+        if (candidate == null || (alternate != null && (hash & 0x10000) == 0))
+            slots.set(first, result);
+        else
+            slots.set(second, result);
+        return result;
+    }
+
+    /** Count the strings currently held in the pool.
+     *
+     * @return number of pooled strings
+     */
+    public int size() {
+        int count = 0;
+        for (int i = 0; i < slots.length(); i++) if (slots.get(i) != null) count++;
+        return count;
+    }
+}
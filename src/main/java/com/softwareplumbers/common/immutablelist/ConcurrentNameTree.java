@@ -0,0 +1,321 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+/** Concurrent hierarchical map keyed by Qualified Name.
+ *
+ * The tree has one node per segment, each node holding its value in an atomic
+ * reference and its children in a concurrent map. Reads are lock-free; updates
+ * to a value are a single compare-and-set on the node for that name, so there is
+ * no global lock and updates to different names do not contend.
+ *
+ * Iteration over children or subtrees is weakly consistent, in the same sense as
+ * the iterators of ConcurrentHashMap: it reflects the state of the tree at some
+ * point at or since the creation of the iterator, and never throws
+ * ConcurrentModificationException.
+ *
+ * Listeners may be registered on any prefix, and are called (on the updating thread)
+ * for every change to a value at or under that prefix.
+ *
+ * A tree may be created with a NameComparison policy, in which case names are folded
+ * under the policy (using the folded form cached in each name) before they are used as
+ * keys; names returned by iterators and passed to listeners are the folded names.
+ *
+ * @author Jonathan Essex
+ * @param <V> Value type
+ */
+public class ConcurrentNameTree<V> {
+
+    /** Listener for changes to a subtree.
+     *
+     * @param <V> Value type
+     */
+    @FunctionalInterface
+    public interface Listener<V> {
+        /** Called after a value in the subtree has changed.
+         *
+         * @param name Name whose value has changed, folded under the comparison policy of the tree
+         * @param oldValue Previous value (null if there was none)
+         * @param newValue New value (null if the value was removed)
+         */
+        void changed(QualifiedName name, V oldValue, V newValue);
+    }
+
+    private static class Node<V> extends TrieNode<Node<V>> {
+        final AtomicReference<V> value = new AtomicReference<>();
+        volatile CopyOnWriteArrayList<Listener<V>> listeners;
+
+        Node(Node<V> parent, String segment) {
+            super(parent, segment);
+        }
+
+        @Override
+        boolean isUnused() {
+            CopyOnWriteArrayList<Listener<V>> current = listeners;
+            return value.get() == null && !children.keys().hasMoreElements() && (current == null || current.isEmpty());
+        }
+
+        CopyOnWriteArrayList<Listener<V>> getOrCreateListeners() {
+            CopyOnWriteArrayList<Listener<V>> current = listeners;
+            if (current == null) {
+                synchronized(this) {
+                    current = listeners;
+                    if (current == null) listeners = current = new CopyOnWriteArrayList<>();
+                }
+            }
+            return current;
+        }
+    }
+
+    private final Node<V> root = new Node<>(null, null);
+    private final NameComparison comparison;
+
+    /** Create a tree with the given comparison policy.
+     *
+     * @param comparison Policy under which names are compared
+     */
+    public ConcurrentNameTree(NameComparison comparison) {
+        this.comparison = comparison;
+    }
+
+    /** Create a tree in which names are compared exactly. */
+    public ConcurrentNameTree() {
+        this(NameComparison.EXACT);
+    }
+
+    private Node<V> findFolded(QualifiedName name) {
+        if (name.isEmpty()) return root;
+        Node<V> parent = findFolded(name.parent);
+        return parent == null ? null : parent.children.get(name.part);
+    }
+
+    private Node<V> findOrCreateFolded(QualifiedName name) {
+        if (name.isEmpty()) return root;
+        Node<V> parent = findOrCreateFolded(name.parent);
+        return parent.children.computeIfAbsent(name.part, segment -> new Node<>(parent, segment));
+    }
+
+    private Node<V> find(QualifiedName name) {
+        return findFolded(name.fold(comparison));
+    }
+
+    private Node<V> findOrCreate(QualifiedName name) {
+        return findOrCreateFolded(name.fold(comparison));
+    }
+
+
+    private void fireChanged(Node<V> node, QualifiedName name, V oldValue, V newValue) {
+        QualifiedName folded = name.fold(comparison);
+        for (Node<V> current = node; current != null; current = current.parent) {
+            CopyOnWriteArrayList<Listener<V>> listeners = current.listeners;
+            if (listeners != null)
+                for (Listener<V> listener : listeners) listener.changed(folded, oldValue, newValue);
+        }
+    }
+
+    /** Get the value associated with a name.
+     *
+     * @param name Name to look up
+     * @return the value associated with name, or null
+     */
+    public V get(QualifiedName name) {
+        Node<V> node = find(name);
+        return node == null ? null : node.value.get();
+    }
+
+    /** Check whether a value is associated with a name.
+     *
+     * @param name Name to look up
+     * @return true if there is a value associated with name
+     */
+    public boolean containsKey(QualifiedName name) {
+        return get(name) != null;
+    }
+
+    /** Associate a value with a name.
+     *
+     * @param name Name with which to associate value
+     * @param value Value (must not be null)
+     * @return the previous value associated with name, or null
+     */
+    public V put(QualifiedName name, V value) {
+        if (value == null) throw new NullPointerException("value");
+        while (true) {
+            Node<V> node = findOrCreate(name);
+            V previous = node.value.getAndSet(value);
+            if (!node.isDetached()) {
+                fireChanged(node, name, previous, value);
+                return previous;
+            }
+        }
+    }
+
+    /** Associate a value with a name if no value is currently associated with it.
+     *
+     * @param name Name with which to associate value
+     * @param value Value (must not be null)
+     * @return the value already associated with name, or null if value was added
+     */
+    public V putIfAbsent(QualifiedName name, V value) {
+        if (value == null) throw new NullPointerException("value");
+        while (true) {
+            Node<V> node = findOrCreate(name);
+            if (node.value.compareAndSet(null, value)) {
+                if (!node.isDetached()) {
+                    fireChanged(node, name, null, value);
+                    return null;
+                }
+            } else {
+                V existing = node.value.get();
+                if (existing != null && !node.isDetached()) return existing;
+            }
+        }
+    }
+
+    /** Remove any value associated with a name.
+     *
+     * @param name Name to remove
+     * @return the value previously associated with name, or null
+     */
+    public V remove(QualifiedName name) {
+        Node<V> node = find(name);
+        if (node == null) return null;
+        V previous = node.value.getAndSet(null);
+        if (previous != null) {
+            fireChanged(node, name, previous, null);
+            node.prune();
+        }
+        return previous;
+    }
+
+    /** Remove a name only if it is currently associated with the given value.
+     *
+     * @param name Name to remove
+     * @param value Expected value
+     * @return true if the value was removed
+     */
+    public boolean remove(QualifiedName name, V value) {
+        Node<V> node = find(name);
+        if (node == null || !node.value.compareAndSet(value, null)) return false;
+        fireChanged(node, name, value, null);
+        node.prune();
+        return true;
+    }
+
+    /** Register a listener for changes at or under a prefix.
+     *
+     * @param prefix Root of subtree to monitor
+     * @param listener Listener to call when a value in the subtree changes
+     */
+    public void addListener(QualifiedName prefix, Listener<V> listener) {
+        while (true) {
+            Node<V> node = findOrCreate(prefix);
+            node.getOrCreateListeners().add(listener);
+            if (!node.isDetached()) return;
+        }
+    }
+
+    /** Remove a listener previously registered with addListener.
+     *
+     * @param prefix Root of monitored subtree
+     * @param listener Listener to remove
+     * @return true if the listener was registered on the given prefix
+     */
+    public boolean removeListener(QualifiedName prefix, Listener<V> listener) {
+        Node<V> node = find(prefix);
+        if (node == null) return false;
+        CopyOnWriteArrayList<Listener<V>> listeners = node.listeners;
+        if (listeners == null || !listeners.remove(listener)) return false;
+        node.prune();
+        return true;
+    }
+
+    /** Iterator over entries in the tree.
+     *
+     * Walks nodes depth-first, using an explicit stack, returning entries for nodes
+     * which hold a value.
+     */
+    private static class EntryIterator<V> implements Iterator<Map.Entry<QualifiedName,V>> {
+
+        private final Deque<Map.Entry<QualifiedName,Node<V>>> pending = new ArrayDeque<>();
+        private final boolean recurse;
+        private Map.Entry<QualifiedName,V> next;
+
+        EntryIterator(QualifiedName prefix, Node<V> node, boolean includeSelf, boolean recurse) {
+            this.recurse = recurse;
+            if (node != null) {
+                if (includeSelf)
+                    pending.push(new SimpleImmutableEntry<>(prefix, node));
+                else
+                    pushChildren(prefix, node);
+            }
+            advance();
+        }
+
+        private void pushChildren(QualifiedName name, Node<V> node) {
+            for (Node<V> child : node.children.values())
+                pending.push(new SimpleImmutableEntry<>(name.add(child.segment), child));
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && !pending.isEmpty()) {
+                Map.Entry<QualifiedName,Node<V>> entry = pending.pop();
+                Node<V> node = entry.getValue();
+                if (recurse) pushChildren(entry.getKey(), node);
+                V value = node.value.get();
+                if (value != null) next = new SimpleImmutableEntry<>(entry.getKey(), value);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<QualifiedName,V> next() {
+            if (next == null) throw new NoSuchElementException();
+            Map.Entry<QualifiedName,V> result = next;
+            advance();
+            return result;
+        }
+    }
+
+    /** Iterate over the immediate children of a prefix which hold a value.
+     *
+     * @param prefix Parent name
+     * @return weakly consistent iterator over entries for names with one more segment than prefix
+     */
+    public Iterator<Map.Entry<QualifiedName,V>> children(QualifiedName prefix) {
+        QualifiedName folded = prefix.fold(comparison);
+        return new EntryIterator<>(folded, findFolded(folded), false, false);
+    }
+
+    /** Iterate over all entries at or under a prefix.
+     *
+     * Parents are always returned before their children.
+     *
+     * @param prefix Root of subtree
+     * @return weakly consistent iterator over entries for names starting with prefix
+     */
+    public Iterator<Map.Entry<QualifiedName,V>> subtree(QualifiedName prefix) {
+        QualifiedName folded = prefix.fold(comparison);
+        return new EntryIterator<>(folded, findFolded(folded), true, true);
+    }
+
+    /** Check if the tree is empty.
+     *
+     * @return true if there are no values in the tree.
+     */
+    public boolean isEmpty() {
+        return !subtree(QualifiedName.ROOT).hasNext();
+    }
+}
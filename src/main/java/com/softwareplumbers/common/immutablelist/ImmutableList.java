@@ -4,7 +4,9 @@
  * and open the template in the editor.
  */
 package com.softwareplumbers.common.immutablelist;
+import java.util.ArrayList;
 import java.util.function.Function;
+import java.util.stream.Collector;
 
 /** Concrete ImmutableList subclass.
  *
@@ -35,6 +37,48 @@ public class ImmutableList<T extends Comparable<T>> extends AbstractImmutableLis
 		return ((ImmutableList<T>)empty()).add(part);
 	}
 		
+	/** Construct a new two-element list 
+	 * 
+	 * Equivalent to of(first).add(second), but avoids the array allocation of of(T...)
+	 * 
+     * @param <T> Value type of list
+	 * @param first first element of new list
+	 * @param second second element of new list
+	 * @return a new list
+	 */
+	public static <T extends Comparable<T>> ImmutableList<T> of(T first, T second) {
+		return new ImmutableList<>(new ImmutableList<>(empty(), first), second);
+	}
+	
+	/** Construct a new three-element list 
+	 * 
+	 * Equivalent to of(first).add(second).add(third), but avoids the array allocation of of(T...)
+	 * 
+     * @param <T> Value type of list
+	 * @param first first element of new list
+	 * @param second second element of new list
+	 * @param third third element of new list
+	 * @return a new list
+	 */
+	public static <T extends Comparable<T>> ImmutableList<T> of(T first, T second, T third) {
+		return new ImmutableList<>(of(first, second), third);
+	}
+	
+	/** Construct a new four-element list 
+	 * 
+	 * Equivalent to of(first).add(second).add(third).add(fourth), but avoids the array allocation of of(T...)
+	 * 
+     * @param <T> Value type of list
+	 * @param first first element of new list
+	 * @param second second element of new list
+	 * @param third third element of new list
+	 * @param fourth fourth element of new list
+	 * @return a new list
+	 */
+	public static <T extends Comparable<T>> ImmutableList<T> of(T first, T second, T third, T fourth) {
+		return new ImmutableList<>(of(first, second, third), fourth);
+	}
+	
 	/** Preferred way to construct a new list 
 	 * 
 	 * Equivalent to empty().add(parts)
@@ -58,6 +102,42 @@ public class ImmutableList<T extends Comparable<T>> extends AbstractImmutableLis
 	public static <T extends Comparable<T>> ImmutableList<T> parse(Function<String,T> elemParser, String list, String separator) {
 		return ((ImmutableList<T>)empty()).addParsed(elemParser, list, separator);
 	}    
+    
+    /** Parse a string into an ImmutableList using the given separator and segment pool.
+     * 
+     * Unlike parse(elemParser, list, separator), the separator is matched literally rather
+     * than as a regular expression; see addParsed(converter, toParse, separator, escape, pool).
+     * 
+     * @param <T> Value type of list
+     * @param list String to parse
+     * @param separator Separator string (not a regular expression)
+     * @param elemParser function for parsing String to T
+     * @param pool Pool used to obtain a canonical string for each element before it is parsed
+     * @return A list consisting of elements of the given string, split by the given separator
+     */
+	@SuppressWarnings("unchecked")
+	public static <T extends Comparable<T>> ImmutableList<T> parse(Function<String,T> elemParser, CharSequence list, String separator, SegmentPool pool) {
+		return ((ImmutableList<T>)empty()).addParsed(elemParser, list, separator, DEFAULT_ESCAPE, pool);
+	}    
+
+    /** Collector which accumulates stream elements into an ImmutableList.
+     * 
+     * Elements are accumulated into an array buffer, and buffers from parallel 
+     * streams are concatenated; the list itself is built once, when the buffer 
+     * is finished.
+     * 
+     * @param <T> Value type of list
+     * @return a Collector which collects elements of a stream into a list in encounter order
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends Comparable<T>> Collector<T, ?, ImmutableList<T>> toImmutableList() {
+        return Collector.of(
+            ArrayList<T>::new, 
+            ArrayList::add, 
+            (left, right) -> { left.addAll(right); return left; }, 
+            parts -> ((ImmutableList<T>)empty()).addAll(parts)
+        );
+    }
 
     @Override
     public ImmutableList<T> getEmpty() {
@@ -0,0 +1,265 @@
+package com.softwareplumbers.common.immutablelist;
+
+/** A Qualified Name which is parsed lazily from a character sequence.
+ *
+ * Holds the source characters, and finds segment boundaries only when first
+ * required. Hashing and comparison work directly over the source characters, so
+ * that a name which is only hashed, compared, or has a single part read never
+ * creates the full chain of QualifiedName nodes or unescapes every part.
+ *
+ * A LazyQualifiedName is equal to a QualifiedName with the same parts, has the same
+ * hash code, and compares with it in the same order as QualifiedName.compareTo.
+ * The source sequence must not be modified after the name is created.
+ *
+ * @author Jonathan Essex
+ */
+public final class LazyQualifiedName implements Comparable<LazyQualifiedName> {
+
+    private final CharSequence source;
+    private final String separator;
+    private final String escape;
+    private final int count;
+    private volatile int[] bounds;
+    private volatile String[] unescaped;
+    private volatile QualifiedName materialized;
+    private int hash;
+
+    private LazyQualifiedName(CharSequence source, String separator, String escape, int[] bounds, int count) {
+        this.source = source;
+        this.separator = separator;
+        this.escape = escape;
+        this.bounds = bounds;
+        this.count = count;
+    }
+
+    /** Create a lazily parsed name.
+     *
+     * @param source Characters to parse
+     * @param separator Separator string
+     * @param escape Escape string, used as a prefix for separators within parts
+     * @return A name equal to QualifiedName.parse(source, separator, SegmentPool.NONE)
+     * @throws IllegalArgumentException if separator or escape is empty
+     */
+    public static LazyQualifiedName parse(CharSequence source, String separator, String escape) {
+        AbstractImmutableList.checkLiteral(separator, escape);
+        return new LazyQualifiedName(source, separator, escape, null, -1);
+    }
+
+    /** Create a lazily parsed name using the default escape.
+     *
+     * @param source Characters to parse
+     * @param separator Separator string
+     * @return A name equal to QualifiedName.parse(source, separator, SegmentPool.NONE)
+     */
+    public static LazyQualifiedName parse(CharSequence source, String separator) {
+        return parse(source, separator, AbstractImmutableList.DEFAULT_ESCAPE);
+    }
+
+    private int[] bounds() {
+        int[] result = bounds;
+        if (result == null) bounds = result = AbstractImmutableList.segmentBounds(source, separator, escape);
+        return result;
+    }
+
+    private String unescaped(int index) {
+        String[] cache = unescaped;
+        if (cache == null) unescaped = cache = new String[bounds().length / 3];
+        String result = cache[index];
+        if (result == null) {
+            int[] b = bounds();
+            cache[index] = result = AbstractImmutableList.unescape(source, b[index*3], b[index*3+1], separator, escape).toString();
+        }
+        return result;
+    }
+
+    private boolean isEscaped(int index) {
+        return bounds()[index*3+2] != 0;
+    }
+
+    /** Compare a segment with a string, in the same way as String.compareTo */
+    private int compareSegment(int index, String other) {
+        if (isEscaped(index)) return unescaped(index).compareTo(other);
+        int[] b = bounds();
+        int start = b[index*3];
+        int length = b[index*3+1] - start;
+        int limit = Math.min(length, other.length());
+        for (int i = 0; i < limit; i++) {
+            char c1 = source.charAt(start + i);
+            char c2 = other.charAt(i);
+            if (c1 != c2) return c1 - c2;
+        }
+        return length - other.length();
+    }
+
+    /** Compare a segment with a segment of another lazy name */
+    private int compareSegment(int index, LazyQualifiedName other, int otherIndex) {
+        if (other.isEscaped(otherIndex)) return compareSegment(index, other.unescaped(otherIndex));
+        if (isEscaped(index)) return -other.compareSegment(otherIndex, unescaped(index));
+        int[] b = bounds();
+        int[] ob = other.bounds();
+        int start = b[index*3];
+        int length = b[index*3+1] - start;
+        int otherStart = ob[otherIndex*3];
+        int otherLength = ob[otherIndex*3+1] - otherStart;
+        int limit = Math.min(length, otherLength);
+        for (int i = 0; i < limit; i++) {
+            char c1 = source.charAt(start + i);
+            char c2 = other.source.charAt(otherStart + i);
+            if (c1 != c2) return c1 - c2;
+        }
+        return length - otherLength;
+    }
+
+    /** Compute the hash of a segment, equal to the hash code of the unescaped String */
+    private int segmentHash(int index) {
+        if (isEscaped(index)) return unescaped(index).hashCode();
+        int[] b = bounds();
+        int result = 0;
+        for (int i = b[index*3]; i < b[index*3+1]; i++) result = 31 * result + source.charAt(i);
+        return result;
+    }
+
+    /** Get number of parts in name
+     *
+     * @return number of parts in this name
+     */
+    public int size() {
+        return count < 0 ? bounds().length / 3 : count;
+    }
+
+    /** Check if name is empty
+     *
+     * @return true if name has no parts
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Get the part that is nth from the start
+     *
+     * @param index index of part to fetch
+     * @return A part
+     */
+    public String get(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(Integer.toString(index));
+        if (isEscaped(index)) return unescaped(index);
+        int[] b = bounds();
+        return source.subSequence(b[index*3], b[index*3+1]).toString();
+    }
+
+    /** Get the part that is nth from the end
+     *
+     * @param index index of part to fetch
+     * @return A part
+     */
+    public String getFromEnd(int index) {
+        return get(size() - 1 - index);
+    }
+
+    /** Get the name without its last part.
+     *
+     * Shares the source and segment boundaries of this name.
+     *
+     * @return A lazy name with all but the last part of this name
+     */
+    public LazyQualifiedName parent() {
+        if (isEmpty()) throw new IllegalStateException("empty name has no parent");
+        return new LazyQualifiedName(source, separator, escape, bounds(), size() - 1);
+    }
+
+    /** Convert to a fully materialized QualifiedName.
+     *
+     * @return A QualifiedName with the same parts as this name
+     */
+    public QualifiedName toQualifiedName() {
+        QualifiedName result = materialized;
+        if (result == null) {
+            result = QualifiedName.ROOT;
+            for (int i = 0; i < size(); i++) result = result.add(get(i));
+            materialized = result;
+        }
+        return result;
+    }
+
+    /** Generate a hash code.
+     *
+     * @return the same hash code as a QualifiedName with the same parts
+     */
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            result = 77;
+            for (int i = 0; i < size(); i++) result = (result * 17) ^ segmentHash(i);
+            hash = result;
+        }
+        return result;
+    }
+
+    /** Compare with a QualifiedName.
+     *
+     * @param other Name to compare
+     * @return the same result as toQualifiedName().compareTo(other)
+     */
+    public int compareTo(QualifiedName other) {
+        int size = size();
+        int otherSize = other.size();
+        if (size != otherSize) return size < otherSize ? -1 : 1;
+        return compareFrom(other, size - 1);
+    }
+
+    private int compareFrom(QualifiedName other, int index) {
+        if (index < 0) return 0;
+        int parentComparison = compareFrom(other.parent, index - 1);
+        if (parentComparison != 0) return parentComparison;
+        return compareSegment(index, other.part);
+    }
+
+    /** Compare with another lazy name.
+     *
+     * @param other Name to compare
+     * @return the same result as comparing the equivalent QualifiedNames
+     */
+    @Override
+    public int compareTo(LazyQualifiedName other) {
+        int size = size();
+        int otherSize = other.size();
+        if (size != otherSize) return size < otherSize ? -1 : 1;
+        for (int i = 0; i < size; i++) {
+            int comparison = compareSegment(i, other, i);
+            if (comparison != 0) return comparison;
+        }
+        return 0;
+    }
+
+    /** Compare with another object.
+     *
+     * @param other Object to compare
+     * @return true if other is a LazyQualifiedName or QualifiedName with the same parts
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) return true;
+        if (other instanceof LazyQualifiedName) {
+            LazyQualifiedName lazy = (LazyQualifiedName)other;
+            return size() == lazy.size() && hashCode() == lazy.hashCode() && compareTo(lazy) == 0;
+        }
+        if (other instanceof QualifiedName) {
+            QualifiedName name = (QualifiedName)other;
+            if (size() != name.size()) return false;
+            for (int i = size() - 1; i >= 0; i--, name = name.parent)
+                if (compareSegment(i, name.part) != 0) return false;
+            return true;
+        }
+        return false;
+    }
+
+    /** Default string representation
+     *
+     * @return the same string as the equivalent QualifiedName
+     */
+    @Override
+    public String toString() {
+        return toQualifiedName().toString();
+    }
+}
@@ -0,0 +1,195 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.Iterator;
+import java.util.function.Function;
+
+/** A view of the last parts of an immutable list.
+ *
+ * Holds the last node of the underlying list and the number of parts visible, so
+ * creating a slice is O(1) and shares all nodes with the underlying list. A slice is
+ * equal to a list with the same parts, has the same hash code, compares with it in the
+ * same order as AbstractImmutableList.compareTo, and joins and iterates in the same way.
+ *
+ * A slice keeps the whole of the underlying list reachable, including the hidden
+ * prefix; compact creates a standalone copy of the visible parts.
+ *
+ * @author Jonathan Essex
+ * @param <T> Value type of list
+ * @param <V> Type of underlying list
+ */
+public final class ListSlice<T extends Comparable<T>, V extends AbstractImmutableList<T,V>> implements Comparable<ListSlice<T,V>>, Iterable<T> {
+
+    private final V end;
+    private final int requested;
+    private int size = -1;
+
+    /** Create a slice.
+     *
+     * @param end Last node of the underlying list
+     * @param length Number of parts visible (if greater than the size of end, all of end is visible)
+     */
+    ListSlice(V end, int length) {
+        this.end = end;
+        this.requested = Math.max(0, length);
+    }
+
+    /** Get number of parts in slice
+     *
+     * @return number of parts visible
+     */
+    public int size() {
+        int result = size;
+        if (result < 0) {
+            result = 0;
+            for (AbstractImmutableList<T,V> node = end; result < requested && !node.isEmpty(); node = node.parent) result++;
+            size = result;
+        }
+        return result;
+    }
+
+    /** Check if slice is empty
+     *
+     * @return true if no parts are visible
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /** Get the part that is nth from the end
+     *
+     * @param index index of part to fetch
+     * @return A part
+     */
+    public T getFromEnd(int index) {
+        if (index < 0 || index >= size()) throw new IndexOutOfBoundsException(Integer.toString(index));
+        return end.getFromEnd(index);
+    }
+
+    /** Get the part that is nth from the start
+     *
+     * @param index index of part to fetch
+     * @return A part
+     */
+    public T get(int index) {
+        return getFromEnd(size() - 1 - index);
+    }
+
+    /** Copy the visible parts into a new list.
+     *
+     * The copy shares no nodes with the underlying list, so the hidden prefix may
+     * be garbage collected once the slice itself is no longer referenced.
+     *
+     * @return A list with the same parts as this slice
+     */
+    public V compact() {
+        return end.right(size());
+    }
+
+    /** Iterate over parts from first to last
+     *
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new AbstractImmutableList.ForwardIterator<>(end, size());
+    }
+
+    /** Join elements of the slice with the given separator.
+     *
+     * @param converter function to convert T to a string.
+     * @param separator string to place between elements of path
+     * @param escape string to prefix separator with if found in the parts of this slice
+     * @return the same result as compact().join(converter, separator, escape)
+     */
+    public String join(Function<T,String> converter, String separator, String escape) {
+        String result = "";
+        for (T part : this) {
+            String text = AbstractImmutableList.escape(converter.apply(part), separator, escape);
+            result = result.isEmpty() ? text : result + separator + text;
+        }
+        return result;
+    }
+
+    /** Join elements of the slice with the given separator.
+     *
+     * @param converter function to convert T to a string.
+     * @param separator string to place between elements of path
+     * @return the same result as compact().join(converter, separator)
+     */
+    public String join(Function<T,String> converter, String separator) {
+        return join(converter, separator, AbstractImmutableList.DEFAULT_ESCAPE);
+    }
+
+    private static int hash(AbstractImmutableList<?,?> node, int count) {
+        if (count == 0) return 77;
+        return (hash(node.parent, count - 1) * 17) ^ node.part.hashCode();
+    }
+
+    /** Generate a hash code.
+     *
+     * @return the same hash code as a list with the same parts
+     */
+    @Override
+    public int hashCode() {
+        return hash(end, size());
+    }
+
+    private static <T extends Comparable<T>> int compareFrom(AbstractImmutableList<T,?> node, AbstractImmutableList<T,?> other, int count) {
+        if (count == 0) return 0;
+        int parentComparison = compareFrom(node.parent, other.parent, count - 1);
+        if (parentComparison != 0) return parentComparison;
+        return node.part.compareTo(other.part);
+    }
+
+    /** Compare with a list.
+     *
+     * @param other List to compare
+     * @return the same result as compact().compareTo(other)
+     */
+    public int compareTo(AbstractImmutableList<T,?> other) {
+        int size = size();
+        int otherSize = other.size();
+        if (size != otherSize) return size < otherSize ? -1 : 1;
+        return compareFrom(end, other, size);
+    }
+
+    /** Compare with another slice.
+     *
+     * @param other Slice to compare
+     * @return the same result as compact().compareTo(other.compact())
+     */
+    @Override
+    public int compareTo(ListSlice<T,V> other) {
+        int size = size();
+        int otherSize = other.size();
+        if (size != otherSize) return size < otherSize ? -1 : 1;
+        return compareFrom(end, other.end, size);
+    }
+
+    /** Compare with another object.
+     *
+     * @param other Object to compare
+     * @return true if other is a slice or list with the same parts
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other == this) return true;
+        if (other instanceof ListSlice) {
+            @SuppressWarnings("unchecked") ListSlice<T,?> slice = (ListSlice<T,?>)other;
+            return size() == slice.size() && compareFrom(end, slice.end, size()) == 0;
+        }
+        if (other instanceof AbstractImmutableList) {
+            @SuppressWarnings("unchecked") AbstractImmutableList<T,?> list = (AbstractImmutableList<T,?>)other;
+            return size() == list.size() && compareFrom(end, list, size()) == 0;
+        }
+        return false;
+    }
+
+    /** Default string representation
+     *
+     * @return the same string as the equivalent list
+     */
+    @Override
+    public String toString() {
+        return join(Object::toString, ".");
+    }
+}
@@ -0,0 +1,120 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.text.Normalizer;
+import java.util.Comparator;
+import java.util.Locale;
+
+/** Policy for comparing the parts of Qualified Names.
+ *
+ * Each policy folds a part to a key, and two names are equivalent under the policy if
+ * their folded keys are equal. The folded form of a name is computed once and cached
+ * in each node (see QualifiedName.fold), so that once a name has been folded the
+ * methods of the policy compare, hash, and match it with no further normalization
+ * and no allocation.
+ *
+ * @author Jonathan Essex
+ */
+public enum NameComparison implements Comparator<QualifiedName> {
+
+    /** Parts are compared exactly. */
+    EXACT {
+        @Override
+        public String fold(String part) {
+            return part;
+        }
+    },
+
+    /** Parts are compared ignoring case. */
+    CASE_INSENSITIVE {
+        @Override
+        public String fold(String part) {
+            return part.toUpperCase(Locale.ROOT).toLowerCase(Locale.ROOT);
+        }
+    },
+
+    /** Parts are compared ignoring case, after Unicode canonical composition (NFC). */
+    NFC_CASE_FOLDED {
+        @Override
+        public String fold(String part) {
+            String folded = CASE_INSENSITIVE.fold(Normalizer.normalize(part, Normalizer.Form.NFC));
+            return Normalizer.normalize(folded, Normalizer.Form.NFC);
+        }
+    };
+
+    /** Fold a part to its comparison key.
+     *
+     * @param part Part to fold
+     * @return key such that parts are equivalent under this policy if their keys are equal
+     */
+    public abstract String fold(String part);
+
+    /** Fold a name to its comparison key.
+     *
+     * @param name Name to fold
+     * @return name.fold(this)
+     */
+    public QualifiedName fold(QualifiedName name) {
+        return name.fold(this);
+    }
+
+    /** Check whether two names are equivalent under this policy.
+     *
+     * @param a First name
+     * @param b Second name
+     * @return true if the folded names are equal
+     */
+    public boolean equals(QualifiedName a, QualifiedName b) {
+        return a.fold(this).equals(b.fold(this));
+    }
+
+    /** Generate a hash code consistent with equals(QualifiedName, QualifiedName).
+     *
+     * @param name Name to hash
+     * @return hash code of the folded name
+     */
+    public int hashCode(QualifiedName name) {
+        return name.fold(this).hashCode();
+    }
+
+    /** Compare two names under this policy.
+     *
+     * @param a First name
+     * @param b Second name
+     * @return the result of comparing the folded names with QualifiedName.compareTo
+     */
+    @Override
+    public int compare(QualifiedName a, QualifiedName b) {
+        return a.fold(this).compareTo(b.fold(this));
+    }
+
+    /** Check whether a name starts with a prefix under this policy.
+     *
+     * @param name Name to check
+     * @param prefix Prefix
+     * @return true if the folded name starts with the folded prefix
+     */
+    public boolean startsWith(QualifiedName name, QualifiedName prefix) {
+        int size = name.size();
+        int prefixSize = prefix.size();
+        return size >= prefixSize && name.fold(this).leftFromEnd(size - prefixSize).equals(prefix.fold(this));
+    }
+
+    /** Compile a pattern whose literal parts are folded under this policy.
+     *
+     * @param pattern Pattern to compile
+     * @return pattern matching folded names
+     */
+    public NamePattern compile(QualifiedName pattern) {
+        return NamePattern.compile(pattern.fold(this));
+    }
+
+    /** Check whether a name matches a pattern under this policy.
+     *
+     * @param name Name to check
+     * @param pattern Pattern created by compile
+     * @return true if the folded name matches pattern
+     */
+    public boolean matches(QualifiedName name, NamePattern pattern) {
+        return pattern.matches(name.fold(this));
+    }
+}
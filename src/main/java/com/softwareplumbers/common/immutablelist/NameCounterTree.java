@@ -0,0 +1,226 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/** Hierarchical counters keyed by Qualified Name, with totals for every prefix.
+ *
+ * Each counter is a LongAdder held in a flat ConcurrentHashMap keyed by name, so
+ * incrementing a counter is a single hash lookup followed by an update of the adder:
+ * writes never walk or touch ancestor nodes, and concurrent writers to the same name
+ * are spread over the adder's cells. The same adders are also held in a
+ * ConcurrentNameTree, which is only used to find the counters under a prefix; it is
+ * updated when a counter is created or removed, not when one is incremented.
+ *
+ * The total for a prefix (the sum of all counters at or under it) is computed when
+ * read, by walking the subtree. Totals are cached for a configurable time, so that
+ * frequent reads of the same prefix do not each walk the subtree; a cached total may
+ * therefore lag behind the counters by up to that time. Removing a counter discards
+ * the cached totals of its name and its ancestors. The number of cached totals is
+ * bounded: when the cache is full, expired totals are discarded by a sweep of the
+ * cache, which runs at most once per cache time, so its cost is spread over all the
+ * reads in that time. Until a sweep makes room, new totals are not cached.
+ *
+ * @author Jonathan Essex
+ */
+public class NameCounterTree {
+
+    /** A cached total */
+    private static class Rollup {
+        final long total;
+        final long computedAt;
+
+        Rollup(long total, long computedAt) {
+            this.total = total;
+            this.computedAt = computedAt;
+        }
+    }
+
+    private final ConcurrentHashMap<QualifiedName,LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentNameTree<LongAdder> tree = new ConcurrentNameTree<>();
+    private final ConcurrentHashMap<QualifiedName,Rollup> rollups = new ConcurrentHashMap<>();
+    private final long cacheNanos;
+    private final int maxCachedTotals;
+    /** Time of the last sweep for expired totals, or Long.MIN_VALUE if there has been none */
+    private final AtomicLong lastSweep = new AtomicLong(Long.MIN_VALUE);
+    private volatile int sweeps;
+
+    /** Default maximum number of cached totals */
+    public static final int DEFAULT_MAX_CACHED_TOTALS = 10000;
+
+    /** Create a counter tree.
+     *
+     * @param cacheTime Time for which totals are cached (0 to disable caching)
+     * @param unit Unit of cacheTime
+     * @param maxCachedTotals Maximum number of totals cached at once
+     */
+    public NameCounterTree(long cacheTime, TimeUnit unit, int maxCachedTotals) {
+        this.cacheNanos = unit.toNanos(cacheTime);
+        this.maxCachedTotals = maxCachedTotals;
+    }
+
+    /** Create a counter tree caching up to DEFAULT_MAX_CACHED_TOTALS totals.
+     *
+     * @param cacheTime Time for which totals are cached (0 to disable caching)
+     * @param unit Unit of cacheTime
+     */
+    public NameCounterTree(long cacheTime, TimeUnit unit) {
+        this(cacheTime, unit, DEFAULT_MAX_CACHED_TOTALS);
+    }
+
+    /** Create a counter tree which does not cache totals. */
+    public NameCounterTree() {
+        this(0, TimeUnit.NANOSECONDS);
+    }
+
+    private LongAdder counter(QualifiedName name) {
+        LongAdder result = counters.get(name);
+        if (result != null) return result;
+        // Add to the tree while holding the map entry, so the two never disagree
+        return counters.computeIfAbsent(name, key -> {
+            LongAdder created = new LongAdder();
+            tree.put(key, created);
+            return created;
+        });
+    }
+
+    /** Add to the counter for a name.
+     *
+     * @param name Name of counter
+     * @param delta Amount to add
+     */
+    public void add(QualifiedName name, long delta) {
+        counter(name).add(delta);
+    }
+
+    /** Increment the counter for a name.
+     *
+     * @param name Name of counter
+     */
+    public void increment(QualifiedName name) {
+        counter(name).increment();
+    }
+
+    /** Get the value of the counter for a name, excluding any counters under it.
+     *
+     * @param name Name of counter
+     * @return current value of counter, or 0 if there is no counter for name
+     */
+    public long get(QualifiedName name) {
+        LongAdder counter = counters.get(name);
+        return counter == null ? 0 : counter.sum();
+    }
+
+    /** Remove the counter for a name.
+     *
+     * Updates to the counter which race with its removal may be lost.
+     *
+     * @param name Name of counter
+     * @return final value of counter, or 0 if there was no counter for name
+     */
+    public long remove(QualifiedName name) {
+        LongAdder[] removed = new LongAdder[1];
+        counters.computeIfPresent(name, (key, counter) -> {
+            tree.remove(key, counter);
+            removed[0] = counter;
+            return null;
+        });
+        LongAdder counter = removed[0];
+        if (counter == null) return 0;
+        if (!rollups.isEmpty())
+            for (QualifiedName prefix = name; ; prefix = prefix.parent) {
+                rollups.remove(prefix);
+                if (prefix.isEmpty()) break;
+            }
+        return counter.sum();
+    }
+
+    private long sum(QualifiedName prefix) {
+        long result = 0;
+        for (Iterator<Map.Entry<QualifiedName,LongAdder>> entries = tree.subtree(prefix); entries.hasNext(); )
+            result += entries.next().getValue().sum();
+        return result;
+    }
+
+    /** Get the total of all counters at or under a prefix.
+     *
+     * @param prefix Prefix
+     * @return sum of counters at or under prefix, possibly cached
+     */
+    public long total(QualifiedName prefix) {
+        if (cacheNanos <= 0) return sum(prefix);
+        long now = System.nanoTime();
+        Rollup cached = rollups.get(prefix);
+        if (cached != null && now - cached.computedAt < cacheNanos) return cached.total;
+        long total = sum(prefix);
+        cache(prefix, total, now);
+        return total;
+    }
+
+    /** Cache a total, if there is room, discarding expired totals if none has been done recently */
+    private void cache(QualifiedName prefix, long total, long now) {
+        if (rollups.size() >= maxCachedTotals && !rollups.containsKey(prefix)) {
+            long last = lastSweep.get();
+            if ((last != Long.MIN_VALUE && now - last < cacheNanos) || !lastSweep.compareAndSet(last, now)) return;
+            sweeps++;
+            rollups.values().removeIf(rollup -> now - rollup.computedAt >= cacheNanos);
+            if (rollups.size() >= maxCachedTotals) return;
+        }
+        rollups.put(prefix, new Rollup(total, now));
+    }
+
+    /** Get the number of cached totals, expired or not */
+    int cachedTotals() {
+        return rollups.size();
+    }
+
+    /** Get the number of sweeps for expired totals */
+    int sweeps() {
+        return sweeps;
+    }
+
+    /** Discard all cached totals. */
+    public void invalidate() {
+        rollups.clear();
+    }
+
+    /** Get the totals for every prefix in a subtree.
+     *
+     * Reads each counter under prefix once. The result holds an entry for each name
+     * at or under prefix which has a counter, or has a counter under it; the value of
+     * each entry is the total for that name. Totals computed are also cached.
+     *
+     * @param prefix Root of subtree
+     * @return totals, sorted by name
+     */
+    public SortedMap<QualifiedName,Long> snapshot(QualifiedName prefix) {
+        SortedMap<QualifiedName,Long> result = new TreeMap<>();
+        int depth = prefix.size();
+        for (Iterator<Map.Entry<QualifiedName,LongAdder>> entries = tree.subtree(prefix); entries.hasNext(); ) {
+            Map.Entry<QualifiedName,LongAdder> entry = entries.next();
+            long value = entry.getValue().sum();
+            QualifiedName name = entry.getKey();
+            for (int level = name.size(); level >= depth; level--, name = name.parent)
+                result.merge(name, value, Long::sum);
+        }
+        if (cacheNanos > 0) {
+            long now = System.nanoTime();
+            result.forEach((name, total) -> cache(name, total, now));
+        }
+        return result;
+    }
+
+    /** Get the totals for every prefix in the tree.
+     *
+     * @return totals, sorted by name
+     */
+    public SortedMap<QualifiedName,Long> snapshot() {
+        return snapshot(QualifiedName.ROOT);
+    }
+}
@@ -0,0 +1,244 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/** Streaming difference between two sorted listings of Qualified Names.
+ *
+ * Both sources must be sorted in strictly increasing depth-first ORDER, in which every
+ * name is immediately followed by its descendants. (QualifiedName.compareTo sorts
+ * shorter names first, which separates a name from its descendants, and is therefore
+ * not suitable.) The diff is a merge join of the two sources which emits events in the
+ * same order.
+ *
+ * Where a name is added, removed, or unchanged and so are the names which follow it
+ * in its subtree, a single event is emitted for the whole run, with a count of the
+ * names covered.
+ *
+ * Each source tracks the depth of the prefix shared by its current name and the
+ * previous one, which is found by walking up the parent chain until it reaches a
+ * node shared with the previous name. The merge uses these depths to work out how
+ * the current names of the two sources compare, so that parts shared with earlier
+ * names are not compared again.
+ *
+ * @author Jonathan Essex
+ */
+public class NameDiff implements Iterator<NameDiff.Event> {
+
+    /** Depth-first order: parts are compared from the root, and a name precedes its descendants. */
+    public static final Comparator<QualifiedName> ORDER = (a, b) -> {
+        int depthA = a.size();
+        int depthB = b.size();
+        int comparison = a.leftFromEnd(depthA - depthB).compareTo(b.leftFromEnd(depthB - depthA));
+        return comparison != 0 ? comparison : Integer.compare(depthA, depthB);
+    };
+
+    /** Kind of difference */
+    public enum Change { ADDED, REMOVED, UNCHANGED }
+
+    /** A run of names with the same change.
+     *
+     * The run consists of name and the count-1 names which follow it in depth-first
+     * order, all of which are descendants of name.
+     */
+    public static final class Event {
+        /** Kind of change */
+        public final Change change;
+        /** First name in the run, an ancestor of all the others */
+        public final QualifiedName name;
+        /** Number of names in the run */
+        public final int count;
+
+        /** Create an event.
+         *
+         * @param change Kind of change
+         * @param name First name in the run
+         * @param count Number of names in the run
+         */
+        public Event(Change change, QualifiedName name, int count) {
+            this.change = change;
+            this.name = name;
+            this.count = count;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Event)) return false;
+            Event event = (Event)other;
+            return change == event.change && name.equals(event.name) && count == event.count;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(change, name, count);
+        }
+
+        @Override
+        public String toString() {
+            return change + " " + name + " (" + count + ")";
+        }
+    }
+
+    /** One side of the merge, holding the ancestors of the current name by depth */
+    private static class Source {
+        private final Iterator<QualifiedName> iterator;
+        private QualifiedName[] nodes = new QualifiedName[16];
+        /** Depth of the current name, or -1 if there is none */
+        private int depth = -1;
+        /** Depth of the prefix shared with the previous name */
+        private int shared = 0;
+
+        Source(Iterator<QualifiedName> iterator) {
+            this.iterator = iterator;
+        }
+
+        boolean isDone() {
+            return depth < 0;
+        }
+
+        QualifiedName current() {
+            return depth == 0 ? QualifiedName.ROOT : nodes[depth - 1];
+        }
+
+        String part(int index) {
+            return nodes[index].part;
+        }
+
+        void advance() {
+            if (!iterator.hasNext()) {
+                depth = -1;
+                return;
+            }
+            QualifiedName name = iterator.next();
+            int size = name.size();
+            if (size > nodes.length) nodes = Arrays.copyOf(nodes, Math.max(size, nodes.length * 2));
+            int mismatch = 0;
+            int sign = 0;
+            int level = size;
+            for (QualifiedName node = name; level > 0; node = node.parent, level--) {
+                if (level <= depth) {
+                    QualifiedName previous = nodes[level - 1];
+                    if (previous == node) break;
+                    if (!previous.part.equals(node.part)) {
+                        mismatch = level;
+                        sign = node.part.compareTo(previous.part);
+                    }
+                }
+                nodes[level - 1] = node;
+            }
+            if (depth >= 0) {
+                if (mismatch == 0 ? size <= depth : sign < 0)
+                    throw new IllegalStateException("Source not in strictly increasing order at " + name);
+                shared = mismatch == 0 ? depth : mismatch - 1;
+            } else {
+                shared = 0;
+            }
+            depth = size;
+        }
+    }
+
+    private final Source left;
+    private final Source right;
+    /** Depth of the prefix shared by the current left and right names */
+    private int common;
+    /** Sign of the comparison of the current left and right names */
+    private int order;
+    private Event next;
+
+    /** Create a diff.
+     *
+     * @param from Names in the original listing, in ORDER
+     * @param to Names in the new listing, in ORDER
+     */
+    public NameDiff(Iterator<QualifiedName> from, Iterator<QualifiedName> to) {
+        left = new Source(from);
+        right = new Source(to);
+        left.advance();
+        right.advance();
+        compareFrom(0);
+    }
+
+    /** Compare the current names explicitly, starting from the given depth */
+    private void compareFrom(int depth) {
+        if (left.isDone() || right.isDone()) return;
+        int limit = Math.min(left.depth, right.depth);
+        for (; depth < limit; depth++) {
+            int comparison = left.part(depth).compareTo(right.part(depth));
+            if (comparison != 0) {
+                common = depth;
+                order = comparison;
+                return;
+            }
+        }
+        common = limit;
+        order = Integer.compare(left.depth, right.depth);
+    }
+
+    /** Advance one source, updating common and order from the depth shared with its previous name */
+    private void advance(Source source, int direction) {
+        source.advance();
+        if (left.isDone() || right.isDone()) return;
+        if (source.shared < common) {
+            common = source.shared;
+            order = direction;
+        } else if (source.shared == common) {
+            compareFrom(common);
+        }
+    }
+
+    private boolean added() {
+        return !right.isDone() && (left.isDone() || order > 0);
+    }
+
+    private boolean removed() {
+        return !left.isDone() && (right.isDone() || order < 0);
+    }
+
+    private Event nextEvent() {
+        if (left.isDone() && right.isDone()) return null;
+        if (added()) {
+            QualifiedName name = right.current();
+            int count = 0;
+            do {
+                advance(right, -1);
+                count++;
+            } while (added() && right.shared >= name.size());
+            return new Event(Change.ADDED, name, count);
+        }
+        if (removed()) {
+            QualifiedName name = left.current();
+            int count = 0;
+            do {
+                advance(left, 1);
+                count++;
+            } while (removed() && left.shared >= name.size());
+            return new Event(Change.REMOVED, name, count);
+        }
+        QualifiedName name = left.current();
+        int count = 0;
+        do {
+            advance(left, 1);
+            advance(right, -1);
+            count++;
+        } while (!left.isDone() && !right.isDone() && order == 0
+            && left.shared >= name.size() && right.shared >= name.size());
+        return new Event(Change.UNCHANGED, name, count);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) next = nextEvent();
+        return next != null;
+    }
+
+    @Override
+    public Event next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        Event result = next;
+        next = null;
+        return result;
+    }
+}
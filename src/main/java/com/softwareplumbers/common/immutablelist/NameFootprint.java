@@ -0,0 +1,306 @@
+package com.softwareplumbers.common.immutablelist;
+
+import com.sun.management.HotSpotDiagnosticMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/** Heap accounting for collections of Qualified Names which takes shared structure into account.
+ *
+ * Names which share a prefix share the nodes of that prefix, and often the part strings
+ * too. A footprint counts each distinct node and each distinct part string (by identity)
+ * exactly once, however many names refer to it. The shared empty root is not counted.
+ * Nor are values cached in a node: renderings cached by render, and folded names
+ * cached by QualifiedName.fold, which keep the nodes and strings of the folded name
+ * reachable from the original.
+ *
+ * Object sizes are estimates from a simple layout model: the header plus the sum of
+ * the field sizes of each class, rounded up to the object alignment, using the
+ * reference size, header size, and alignment of the running JVM (read from the
+ * HotSpot diagnostic MBean where available), and allowing for compact strings. The
+ * model ignores how the JVM packs fields and any padding gaps between them, so an
+ * object may be somewhat larger than estimated.
+ *
+ * A footprint can be built in one go with of, or maintained incrementally: add and
+ * remove keep a reference count for each node and string, so that a cache can track
+ * the heap retained by its keys as entries are inserted and evicted. Only names which
+ * were added may be removed. A footprint is not thread safe.
+ *
+ * @author Jonathan Essex
+ */
+public class NameFootprint {
+
+    /** Object layout parameters of a JVM. */
+    public static final class Layout {
+        /** Size of an object reference in bytes */
+        public final int referenceSize;
+        /** Size of an object header in bytes */
+        public final int headerSize;
+        /** Offset of the first element of an array in bytes */
+        public final int arrayBaseOffset;
+        /** Objects sizes are rounded up to a multiple of this */
+        public final int objectAlignment;
+        /** True if strings holding only Latin-1 characters use one byte per character */
+        public final boolean compactStrings;
+
+        private final Map<Class<?>,Long> shallowSizes = new IdentityHashMap<>();
+
+        /** Create a layout.
+         *
+         * @param referenceSize Size of an object reference in bytes
+         * @param headerSize Size of an object header in bytes
+         * @param objectAlignment Objects sizes are rounded up to a multiple of this
+         * @param compactStrings True if Latin-1 strings use one byte per character
+         */
+        public Layout(int referenceSize, int headerSize, int objectAlignment, boolean compactStrings) {
+            this.referenceSize = referenceSize;
+            this.headerSize = headerSize;
+            this.arrayBaseOffset = headerSize + 4;
+            this.objectAlignment = objectAlignment;
+            this.compactStrings = compactStrings;
+        }
+
+        private static String option(HotSpotDiagnosticMXBean bean, String name, String defaultValue) {
+            try {
+                return bean.getVMOption(name).getValue();
+            } catch (IllegalArgumentException e) {
+                // option not supported by this JVM
+                return defaultValue;
+            }
+        }
+
+        private static boolean hasField(Class<?> type, String name) {
+            try {
+                type.getDeclaredField(name);
+                return true;
+            } catch (NoSuchFieldException e) {
+                return false;
+            }
+        }
+
+        /** Get the layout of the running JVM.
+         *
+         * Falls back to the layout of a 64 bit HotSpot JVM with default settings if
+         * the diagnostic MBean is not available.
+         *
+         * @return layout of the running JVM
+         */
+        public static Layout current() {
+            boolean coderField = hasField(String.class, "coder");
+            try {
+                HotSpotDiagnosticMXBean bean = ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class);
+                boolean compressedOops = Boolean.parseBoolean(option(bean, "UseCompressedOops", "true"));
+                boolean compressedClasses = Boolean.parseBoolean(option(bean, "UseCompressedClassPointers", Boolean.toString(compressedOops)));
+                boolean compactHeaders = Boolean.parseBoolean(option(bean, "UseCompactObjectHeaders", "false"));
+                int alignment = Integer.parseInt(option(bean, "ObjectAlignmentInBytes", "8"));
+                boolean compactStrings = coderField && Boolean.parseBoolean(option(bean, "CompactStrings", "true"));
+                int header = compactHeaders ? 8 : compressedClasses ? 12 : 16;
+                return new Layout(compressedOops ? 4 : 8, header, alignment, compactStrings);
+            } catch (RuntimeException | LinkageError e) {
+                return new Layout(4, 12, 8, coderField);
+            }
+        }
+
+        private long align(long size) {
+            return (size + objectAlignment - 1) / objectAlignment * objectAlignment;
+        }
+
+        private int fieldSize(Class<?> type) {
+            if (!type.isPrimitive()) return referenceSize;
+            if (type == long.class || type == double.class) return 8;
+            if (type == int.class || type == float.class) return 4;
+            if (type == short.class || type == char.class) return 2;
+            return 1;
+        }
+
+        /** Get the size of an instance of a class, excluding any objects it refers to.
+         *
+         * @param type Class (not an array class)
+         * @return size in bytes of an instance
+         */
+        public synchronized long shallowSize(Class<?> type) {
+            Long result = shallowSizes.get(type);
+            if (result == null) {
+                long size = headerSize;
+                for (Class<?> current = type; current != null; current = current.getSuperclass())
+                    for (Field field : current.getDeclaredFields())
+                        if (!Modifier.isStatic(field.getModifiers())) size += fieldSize(field.getType());
+                result = align(size);
+                shallowSizes.put(type, result);
+            }
+            return result;
+        }
+
+        /** Get the size of an array.
+         *
+         * @param length Number of elements
+         * @param elementSize Size of each element in bytes
+         * @return size in bytes of the array
+         */
+        public long arraySize(int length, int elementSize) {
+            return align(arrayBaseOffset + (long)length * elementSize);
+        }
+
+        /** Get the size of a string, including its character array.
+         *
+         * @param string String
+         * @return size in bytes of the string and its characters
+         */
+        public long stringSize(String string) {
+            int elementSize = 1;
+            if (!compactStrings) {
+                elementSize = 2;
+            } else {
+                for (int i = 0; i < string.length() && elementSize == 1; i++)
+                    if (string.charAt(i) > 0xFF) elementSize = 2;
+            }
+            return shallowSize(String.class) + arraySize(string.length(), elementSize);
+        }
+    }
+
+    private final Layout layout;
+    private final Map<QualifiedName,int[]> added = new IdentityHashMap<>();
+    private final Map<QualifiedName,int[]> nodes = new IdentityHashMap<>();
+    private final Map<String,int[]> strings = new IdentityHashMap<>();
+    private long nodeBytes;
+    private long stringBytes;
+
+    /** Create an empty footprint for a given layout.
+     *
+     * @param layout JVM object layout
+     */
+    public NameFootprint(Layout layout) {
+        this.layout = layout;
+    }
+
+    /** Create an empty footprint for the running JVM. */
+    public NameFootprint() {
+        this(Layout.current());
+    }
+
+    /** Get the footprint of a collection of names.
+     *
+     * @param names Names to measure
+     * @return footprint counting each distinct node and string in names once
+     */
+    public static NameFootprint of(Iterable<? extends QualifiedName> names) {
+        NameFootprint result = new NameFootprint();
+        for (QualifiedName name : names) result.add(name);
+        return result;
+    }
+
+    private static <K> boolean retain(Map<K,int[]> counts, K key) {
+        int[] count = counts.get(key);
+        if (count != null) {
+            count[0]++;
+            return false;
+        }
+        counts.put(key, new int[] { 1 });
+        return true;
+    }
+
+    private static <K> boolean release(Map<K,int[]> counts, K key) {
+        int[] count = counts.get(key);
+        if (count == null) throw new IllegalArgumentException("not in footprint: " + key);
+        if (--count[0] > 0) return false;
+        counts.remove(key);
+        return true;
+    }
+
+    /** Add a name.
+     *
+     * Only the nodes and strings of name not already counted add to the footprint.
+     *
+     * @param name Name to add
+     */
+    public void add(QualifiedName name) {
+        if (name.isEmpty()) return;
+        retain(added, name);
+        for (QualifiedName node = name; !node.isEmpty() && retain(nodes, node); node = node.parent) {
+            nodeBytes += layout.shallowSize(node.getClass());
+            if (retain(strings, node.part)) stringBytes += layout.stringSize(node.part);
+        }
+    }
+
+    /** Remove a name previously added.
+     *
+     * Nodes and strings no longer referred to by any added name are no longer counted.
+     * A name which is only the prefix of an added name cannot be removed.
+     *
+     * @param name Name to remove (the same instance as was added)
+     * @throws IllegalArgumentException if name was not added, or has already been removed as often as added
+     */
+    public void remove(QualifiedName name) {
+        if (name.isEmpty()) return;
+        if (!added.containsKey(name)) throw new IllegalArgumentException("not added to footprint: " + name);
+        release(added, name);
+        for (QualifiedName node = name; !node.isEmpty() && release(nodes, node); node = node.parent) {
+            nodeBytes -= layout.shallowSize(node.getClass());
+            if (release(strings, node.part)) stringBytes -= layout.stringSize(node.part);
+        }
+    }
+
+    /** Get the number of distinct nodes.
+     *
+     * @return number of distinct non-empty nodes in added names
+     */
+    public int nodeCount() {
+        return nodes.size();
+    }
+
+    /** Get the number of distinct part strings.
+     *
+     * @return number of distinct (by identity) part strings in added names
+     */
+    public int stringCount() {
+        return strings.size();
+    }
+
+    /** Get the bytes used by nodes.
+     *
+     * @return total size of distinct nodes
+     */
+    public long nodeBytes() {
+        return nodeBytes;
+    }
+
+    /** Get the bytes used by part strings.
+     *
+     * @return total size of distinct part strings and their characters
+     */
+    public long stringBytes() {
+        return stringBytes;
+    }
+
+    /** Get the bytes retained by added names.
+     *
+     * @return nodeBytes() + stringBytes()
+     */
+    public long bytes() {
+        return nodeBytes + stringBytes;
+    }
+
+    /** Break down the footprint by prefix.
+     *
+     * Each distinct node is attributed to its ancestor at the given depth, or to itself
+     * if it is shallower. Each distinct string is attributed to the first node found
+     * which refers to it. The values in the result therefore add up to bytes().
+     *
+     * @param depth Depth of prefixes
+     * @return bytes attributed to each prefix
+     */
+    public SortedMap<QualifiedName,Long> byPrefix(int depth) {
+        SortedMap<QualifiedName,Long> result = new TreeMap<>();
+        Map<String,Boolean> attributed = new IdentityHashMap<>();
+        for (QualifiedName node : nodes.keySet()) {
+            long bytes = layout.shallowSize(node.getClass());
+            if (attributed.put(node.part, Boolean.TRUE) == null) bytes += layout.stringSize(node.part);
+            result.merge(node.leftFromEnd(node.size() - depth), bytes, Long::sum);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,266 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+/** Order-preserving binary encoding of Qualified Names.
+ *
+ * Encodes a name as a byte array such that comparing two keys as unsigned bytes
+ * (memcmp order) gives the same result as QualifiedName.compareTo. Keys are thus
+ * suitable for use in byte-ordered key-value stores.
+ *
+ * Since compareTo orders names first by depth and then part by part, a key starts with
+ * the depth of the name, followed by each part in turn. Each character of a part is
+ * encoded in one to three bytes, using an encoding which preserves the order of UTF-16
+ * code units (and hence of String.compareTo) and never uses a zero first byte; each part
+ * is terminated by a zero byte, so that a part sorts before any longer part which it
+ * prefixes.
+ *
+ * Names with a given prefix and depth occupy a single contiguous range of keys, given by
+ * prefixStart and prefixEnd; a whole subtree occupies one such range per depth.
+ *
+ * Keys can be decoded one segment at a time with a Cursor, which allows seeks and range
+ * scans to examine keys without building QualifiedName objects.
+ *
+ * @author Jonathan Essex
+ */
+public final class NameKeyCodec {
+
+    private static final int ONE_BYTE_LIMIT = 0x7F;
+    private static final int TWO_BYTE_LIMIT = ONE_BYTE_LIMIT + 0x4000;
+    private static final int TERMINATOR = 0;
+    private static final int LONG_DEPTH = 0xFF;
+
+    private NameKeyCodec() { }
+
+    /** Simple growable byte buffer */
+    private static class Buffer {
+        byte[] bytes;
+        int length = 0;
+
+        Buffer(int capacity) { bytes = new byte[capacity]; }
+
+        void put(int value) {
+            if (length == bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            bytes[length++] = (byte)value;
+        }
+
+        byte[] toArray() {
+            return length == bytes.length ? bytes : Arrays.copyOf(bytes, length);
+        }
+    }
+
+    private static void putDepth(Buffer buffer, int depth) {
+        if (depth < LONG_DEPTH) {
+            buffer.put(depth);
+        } else {
+            buffer.put(LONG_DEPTH);
+            buffer.put(depth >>> 24);
+            buffer.put(depth >>> 16);
+            buffer.put(depth >>> 8);
+            buffer.put(depth);
+        }
+    }
+
+    private static void putChar(Buffer buffer, char c) {
+        if (c < ONE_BYTE_LIMIT) {
+            buffer.put(c + 1);
+        } else if (c < TWO_BYTE_LIMIT) {
+            int d = c - ONE_BYTE_LIMIT;
+            buffer.put(0x80 | (d >>> 8));
+            buffer.put(d);
+        } else {
+            int d = c - TWO_BYTE_LIMIT;
+            buffer.put(0xC0);
+            buffer.put(d >>> 8);
+            buffer.put(d);
+        }
+    }
+
+    private static void putSegment(Buffer buffer, String segment) {
+        for (int i = 0; i < segment.length(); i++) putChar(buffer, segment.charAt(i));
+        buffer.put(TERMINATOR);
+    }
+
+    private static void putSegments(Buffer buffer, QualifiedName name) {
+        if (name.isEmpty()) return;
+        putSegments(buffer, name.parent);
+        putSegment(buffer, name.part);
+    }
+
+    private static Buffer encode(QualifiedName name, int depth) {
+        Buffer buffer = new Buffer(16 + 8 * depth);
+        putDepth(buffer, depth);
+        putSegments(buffer, name);
+        return buffer;
+    }
+
+    /** Encode a name as a sort key.
+     *
+     * @param name Name to encode
+     * @return key whose unsigned byte order is the same as the order of names
+     */
+    public static byte[] encode(QualifiedName name) {
+        return encode(name, name.size()).toArray();
+    }
+
+    /** Decode a sort key.
+     *
+     * @param key Key created by encode
+     * @return the encoded name
+     */
+    public static QualifiedName decode(byte[] key) {
+        Cursor cursor = new Cursor(key);
+        QualifiedName result = QualifiedName.ROOT;
+        while (cursor.hasNext()) result = result.add(cursor.next());
+        return result;
+    }
+
+    /** Get the depth of an encoded name without decoding any parts.
+     *
+     * @param key Key created by encode
+     * @return number of parts in the encoded name
+     */
+    public static int depth(byte[] key) {
+        int first = key[0] & 0xFF;
+        if (first < LONG_DEPTH) return first;
+        return ((key[1] & 0xFF) << 24) | ((key[2] & 0xFF) << 16) | ((key[3] & 0xFF) << 8) | (key[4] & 0xFF);
+    }
+
+    /** Get the first key of the range holding all names of a given depth which start with a prefix.
+     *
+     * @param prefix Prefix of names in range
+     * @param depth Depth of names in range
+     * @return inclusive lower bound of keys
+     */
+    public static byte[] prefixStart(QualifiedName prefix, int depth) {
+        if (prefix.size() > depth) throw new IllegalArgumentException("prefix is deeper than depth");
+        return encode(prefix, depth).toArray();
+    }
+
+    /** Get the end of the range holding all names of a given depth which start with a prefix.
+     *
+     * @param prefix Prefix of names in range
+     * @param depth Depth of names in range
+     * @return exclusive upper bound of keys
+     */
+    public static byte[] prefixEnd(QualifiedName prefix, int depth) {
+        return successor(prefixStart(prefix, depth));
+    }
+
+    /** Get the smallest key which is greater than every key starting with the given bytes */
+    private static byte[] successor(byte[] prefix) {
+        for (int i = prefix.length - 1; i >= 0; i--) {
+            if (prefix[i] != (byte)0xFF) {
+                byte[] result = Arrays.copyOf(prefix, i + 1);
+                result[i]++;
+                return result;
+            }
+        }
+        throw new IllegalArgumentException("no successor for key");
+    }
+
+    /** Compare two keys in unsigned byte order.
+     *
+     * @param a First key
+     * @param b Second key
+     * @return negative, zero, or positive as a is less than, equal to, or greater than b
+     */
+    public static int compare(byte[] a, byte[] b) {
+        int limit = Math.min(a.length, b.length);
+        for (int i = 0; i < limit; i++) {
+            int comparison = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (comparison != 0) return comparison;
+        }
+        return a.length - b.length;
+    }
+
+    /** Reads the parts of an encoded name one at a time.
+     *
+     */
+    public static class Cursor {
+        private final byte[] key;
+        private int offset;
+        private int remaining;
+
+        /** Create a cursor positioned before the first part of a key.
+         *
+         * @param key Key created by encode
+         */
+        public Cursor(byte[] key) {
+            this.key = key;
+            this.remaining = depth(key);
+            this.offset = (key[0] & 0xFF) < LONG_DEPTH ? 1 : 5;
+        }
+
+        /** Check if there are more parts.
+         *
+         * @return true if there are more parts to read
+         */
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        /** Number of parts not yet read.
+         *
+         * @return count of remaining parts
+         */
+        public int remaining() {
+            return remaining;
+        }
+
+        private char readChar() {
+            int first = key[offset++] & 0xFF;
+            if (first < 0x80) return (char)(first - 1);
+            if (first < 0xC0) return (char)((((first & 0x3F) << 8) | (key[offset++] & 0xFF)) + ONE_BYTE_LIMIT);
+            int d = ((key[offset] & 0xFF) << 8) | (key[offset + 1] & 0xFF);
+            offset += 2;
+            return (char)(d + TWO_BYTE_LIMIT);
+        }
+
+        private void checkNext() {
+            if (remaining <= 0) throw new NoSuchElementException();
+        }
+
+        /** Decode the next part.
+         *
+         * @return the next part
+         */
+        public String next() {
+            checkNext();
+            StringBuilder result = new StringBuilder();
+            while (key[offset] != TERMINATOR) result.append(readChar());
+            offset++;
+            remaining--;
+            return result.toString();
+        }
+
+        /** Skip over the next part without decoding it. */
+        public void skip() {
+            checkNext();
+            while (key[offset] != TERMINATOR) readChar();
+            offset++;
+            remaining--;
+        }
+
+        /** Compare the next part with a string, and move past it.
+         *
+         * @param segment String to compare
+         * @return negative, zero, or positive as the next part is less than, equal to, or greater than segment
+         */
+        public int compareNext(String segment) {
+            checkNext();
+            int result = 0;
+            int i = 0;
+            while (key[offset] != TERMINATOR) {
+                char c = readChar();
+                if (result == 0) result = i < segment.length() ? c - segment.charAt(i) : 1;
+                i++;
+            }
+            offset++;
+            remaining--;
+            if (result == 0 && i < segment.length()) result = -1;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+/** Assigns whole subtrees of Qualified Names to shards.
+ *
+ * A name is routed by its partition prefix: normally the ancestor at the configured
+ * split depth (or the name itself, if shorter). A hot prefix may be split, in which
+ * case each of its children becomes a partition in its own right, and so on
+ * recursively. Splitting can be done explicitly or automatically, by recording
+ * accesses and splitting any partition whose access count exceeds a threshold.
+ *
+ * Partitions are mapped to shards by consistent hashing, with a number of virtual
+ * nodes per shard, so that adding or removing a shard moves only the partitions
+ * which hash to that shard. The ring positions of a shard are derived from a string
+ * key supplied for each shard (not from its hashCode), so partitioners in different
+ * processes with the same shards and settings route every name to the same shard.
+ *
+ * Prefix hashes are computed from the parts of a name in a way which lets the hash of
+ * every ancestor be derived while walking up the parent chain, so resolving a name to
+ * its shard takes a fixed number of passes over the parent chain and allocates nothing.
+ * Routing reads immutable snapshots of the shard ring and split set; changes to either
+ * are serialized and replace the snapshot.
+ *
+ * @author Jonathan Essex
+ * @param <S> Shard type
+ */
+public class NamePartitioner<S> {
+
+    /** Immutable snapshot of the consistent hash ring */
+    private static class Ring<S> {
+        final long[] points;
+        final List<S> shards;
+
+        Ring(long[] points, List<S> shards) {
+            this.points = points;
+            this.shards = shards;
+        }
+
+        S lookup(long hash) {
+            if (points.length == 0) throw new IllegalStateException("No shards");
+            int index = Arrays.binarySearch(points, hash);
+            if (index < 0) index = -index - 1;
+            return shards.get(index == points.length ? 0 : index);
+        }
+    }
+
+    /** Immutable snapshot of the set of split prefixes, sorted by hash */
+    private static class Splits {
+        final long[] hashes;
+        final QualifiedName[] prefixes;
+
+        Splits(long[] hashes, QualifiedName[] prefixes) {
+            this.hashes = hashes;
+            this.prefixes = prefixes;
+        }
+
+        boolean contains(long hash, QualifiedName prefix) {
+            if (hashes.length == 0) return false;
+            int index = Arrays.binarySearch(hashes, hash);
+            if (index < 0) return false;
+            while (index > 0 && hashes[index - 1] == hash) index--;
+            for (; index < hashes.length && hashes[index] == hash; index++)
+                if (prefixes[index].equals(prefix)) return true;
+            return false;
+        }
+    }
+
+    private final int splitDepth;
+    private final int virtualNodes;
+    private final long hotThreshold;
+    private final Function<? super S,String> shardKey;
+    private final AtomicLongArray accessCounts;
+    private volatile Ring<S> ring = new Ring<>(new long[0], Collections.emptyList());
+    private volatile Splits splits = new Splits(new long[0], new QualifiedName[0]);
+    private final List<S> shards = new ArrayList<>();
+
+    /** Create a partitioner.
+     *
+     * @param splitDepth Depth of the prefix used to route names when no prefix is split
+     * @param virtualNodes Number of points on the hash ring for each shard
+     * @param hotThreshold Access count above which recordAccess splits a partition (0 to disable)
+     * @param shardKey Function giving a stable, unique key for each shard, used to place it on the ring
+     */
+    public NamePartitioner(int splitDepth, int virtualNodes, long hotThreshold, Function<? super S,String> shardKey) {
+        if (splitDepth < 0) throw new IllegalArgumentException("splitDepth must not be negative");
+        if (virtualNodes < 1) throw new IllegalArgumentException("virtualNodes must be positive");
+        this.splitDepth = splitDepth;
+        this.virtualNodes = virtualNodes;
+        this.hotThreshold = hotThreshold;
+        this.shardKey = shardKey;
+        this.accessCounts = new AtomicLongArray(1024);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /** Hash contribution of a part at a given depth; a prefix hash is the sum of its contributions */
+    private static long partHash(String part, int depth) {
+        return mix(((long)depth << 32) ^ (part.hashCode() & 0xFFFFFFFFL));
+    }
+
+    /** 64 bit FNV-1a hash of a string, which is the same in every JVM */
+    private static long keyHash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static long finish(long sum, int depth) {
+        return mix(sum + depth * 0x9E3779B97F4A7C15L);
+    }
+
+    private static long prefixHash(QualifiedName prefix) {
+        int depth = prefix.size();
+        long sum = 0;
+        for (QualifiedName current = prefix; !current.isEmpty(); current = current.parent) sum += partHash(current.part, depth--);
+        return finish(sum, prefix.size());
+    }
+
+    /** Get the partition prefix used to route a name.
+     *
+     * The partition is the shallowest ancestor, at or below the split depth, which is not
+     * split. Walking up from the name, the hash of each ancestor is obtained from that of
+     * its child by subtracting the contribution of the part removed.
+     *
+     * @param name Name to route
+     * @return the ancestor of name (or name itself) which identifies its partition
+     */
+    public QualifiedName partitionOf(QualifiedName name) {
+        Splits current = splits;
+        int size = name.size();
+        int floor = Math.min(splitDepth, size);
+        if (current.hashes.length == 0) return name.leftFromEnd(size - floor);
+        long sum = 0;
+        int depth = size;
+        for (QualifiedName node = name; !node.isEmpty(); node = node.parent) sum += partHash(node.part, depth--);
+        QualifiedName result = name;
+        QualifiedName node = name;
+        for (depth = size; depth > floor; depth--) {
+            sum -= partHash(node.part, depth);
+            node = node.parent;
+            if (!current.contains(finish(sum, depth - 1), node)) result = node;
+        }
+        return result;
+    }
+
+    /** Get the shard to which a name is routed.
+     *
+     * @param name Name to route
+     * @return shard holding the partition containing name
+     */
+    public S shardOf(QualifiedName name) {
+        return ring.lookup(prefixHash(partitionOf(name)));
+    }
+
+    private void rebuildRing() {
+        long[] points = new long[shards.size() * virtualNodes];
+        for (int shard = 0; shard < shards.size(); shard++) {
+            long hash = keyHash(shardKey.apply(shards.get(shard)));
+            for (int node = 0; node < virtualNodes; node++)
+                points[shard * virtualNodes + node] = mix(hash + node * 0x9E3779B97F4A7C15L);
+        }
+        long[] sorted = points.clone();
+        Arrays.sort(sorted);
+        List<S> owners = new ArrayList<>(Collections.nCopies(points.length, (S)null));
+        for (int i = 0; i < points.length; i++)
+            owners.set(Arrays.binarySearch(sorted, points[i]), shards.get(i / virtualNodes));
+        ring = new Ring<>(sorted, owners);
+    }
+
+    /** Add a shard.
+     *
+     * @param shard Shard to add
+     */
+    public synchronized void addShard(S shard) {
+        if (!shards.contains(shard)) {
+            shards.add(shard);
+            rebuildRing();
+        }
+    }
+
+    /** Remove a shard.
+     *
+     * @param shard Shard to remove
+     */
+    public synchronized void removeShard(S shard) {
+        if (shards.remove(shard)) rebuildRing();
+    }
+
+    private void replaceSplits(List<QualifiedName> prefixes) {
+        QualifiedName[] sorted = prefixes.toArray(new QualifiedName[prefixes.size()]);
+        long[] hashes = new long[sorted.length];
+        Arrays.sort(sorted, (a, b) -> Long.compare(prefixHash(a), prefixHash(b)));
+        for (int i = 0; i < sorted.length; i++) hashes[i] = prefixHash(sorted[i]);
+        splits = new Splits(hashes, sorted);
+    }
+
+    /** Split a prefix, so that each child of the prefix is routed as a separate partition.
+     *
+     * @param prefix Prefix to split
+     * @return true if the prefix was not already split
+     */
+    public synchronized boolean split(QualifiedName prefix) {
+        List<QualifiedName> prefixes = new ArrayList<>(Arrays.asList(splits.prefixes));
+        if (prefixes.contains(prefix)) return false;
+        prefixes.add(prefix);
+        replaceSplits(prefixes);
+        return true;
+    }
+
+    /** Undo a split, so that the whole subtree under the prefix is routed together again.
+     *
+     * @param prefix Prefix to merge
+     * @return true if the prefix was split
+     */
+    public synchronized boolean merge(QualifiedName prefix) {
+        List<QualifiedName> prefixes = new ArrayList<>(Arrays.asList(splits.prefixes));
+        if (!prefixes.remove(prefix)) return false;
+        replaceSplits(prefixes);
+        return true;
+    }
+
+    /** Get the prefixes which are currently split.
+     *
+     * @return split prefixes
+     */
+    public List<QualifiedName> splitPrefixes() {
+        return Collections.unmodifiableList(Arrays.asList(splits.prefixes));
+    }
+
+    /** Record an access to a name, splitting its partition if it has become hot.
+     *
+     * Access counts are held in a fixed number of counters indexed by partition hash, so
+     * partitions which share a counter are counted together.
+     *
+     * @param name Name accessed
+     * @return true if the access caused a partition to be split
+     */
+    public boolean recordAccess(QualifiedName name) {
+        if (hotThreshold <= 0) return false;
+        QualifiedName partition = partitionOf(name);
+        int index = (int)(prefixHash(partition) & (accessCounts.length() - 1));
+        if (accessCounts.incrementAndGet(index) <= hotThreshold) return false;
+        accessCounts.set(index, 0);
+        return partition != name && split(partition);
+    }
+
+    /** Halve all access counts, so that hot partitions are detected on recent load. */
+    public void decay() {
+        for (int i = 0; i < accessCounts.length(); i++) {
+            long count;
+            do {
+                count = accessCounts.get(i);
+            } while (!accessCounts.compareAndSet(i, count, count / 2));
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** A compiled glob pattern over Qualified Names.
+ *
+ * Each part of the pattern is either a literal segment, which must match
+ * a segment of a name exactly, ANY_SEGMENT ("*"), which matches any single
+ * segment, or ANY_SEGMENTS ("**"), which matches zero or more segments. Thus
+ * app.**.error matches app.error, app.x.error and app.x.y.error, and
+ * *.metrics.* matches x.metrics.y but not metrics.y.
+ *
+ * The pattern is compiled to a non-deterministic automaton over segments which
+ * is simulated with a bit-parallel state set. Matching walks the name once, from
+ * the last segment back to the root, so runs in time linear in the depth of the
+ * name with no backtracking and no allocation of intermediate names.
+ *
+ * @author Jonathan Essex
+ */
+public final class NamePattern {
+
+    /** Pattern part which matches exactly one segment. */
+    public static final String ANY_SEGMENT = "*";
+    /** Pattern part which matches zero or more segments. */
+    public static final String ANY_SEGMENTS = "**";
+
+    private static final long[] NO_STATES = new long[0];
+
+    /** The (normalized) pattern from which this automaton was compiled. */
+    public final QualifiedName pattern;
+
+    // Pattern parts in reverse order; state k means the last k reversed parts have been matched.
+    private final int length;
+    private final int words;
+    private final long[] anySegment;
+    private final long[] anySegments;
+    private final Map<String,long[]> literals;
+
+    private NamePattern(QualifiedName pattern) {
+        this.pattern = pattern;
+        List<String> reversed = new ArrayList<>();
+        pattern.applyReverse(reversed, (list, part) -> { list.add(part); return list; });
+        this.length = reversed.size();
+        this.words = (length >> 6) + 1;
+        this.anySegment = new long[words];
+        this.anySegments = new long[words];
+        Map<String,long[]> literalMasks = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            String part = reversed.get(i);
+            if (ANY_SEGMENTS.equals(part)) {
+                set(anySegments, i);
+            } else if (ANY_SEGMENT.equals(part)) {
+                set(anySegment, i);
+            } else {
+                set(literalMasks.computeIfAbsent(part, k -> new long[words]), i);
+            }
+        }
+        this.literals = Collections.unmodifiableMap(literalMasks);
+    }
+
+    private static void set(long[] mask, int bit) {
+        mask[bit >> 6] |= 1L << (bit & 63);
+    }
+
+    private static boolean isSet(long[] mask, int bit) {
+        return (mask[bit >> 6] & (1L << (bit & 63))) != 0;
+    }
+
+    /** Remove consecutive ANY_SEGMENTS parts, which are redundant */
+    private static QualifiedName normalize(QualifiedName pattern) {
+        return pattern.apply(QualifiedName.ROOT, (result, part) ->
+            ANY_SEGMENTS.equals(part) && !result.isEmpty() && ANY_SEGMENTS.equals(result.part)
+                ? result
+                : result.add(part)
+        );
+    }
+
+    /** Compile a glob pattern.
+     *
+     * @param pattern Qualified name whose parts are literals, ANY_SEGMENT or ANY_SEGMENTS
+     * @return a compiled pattern
+     */
+    public static NamePattern compile(QualifiedName pattern) {
+        return new NamePattern(normalize(pattern));
+    }
+
+    /** Parse and compile a glob pattern.
+     *
+     * @param pattern String to parse
+     * @param separator Separator string
+     * @return a compiled pattern
+     */
+    public static NamePattern compile(String pattern, String separator) {
+        return compile(QualifiedName.parse(pattern, separator));
+    }
+
+    /** Apply the epsilon transitions of the automaton.
+     *
+     * A state sitting just before an ANY_SEGMENTS part may also skip over it. Since
+     * consecutive ANY_SEGMENTS parts are removed on compilation, one step is sufficient.
+     */
+    private void close(long[] states) {
+        long carry = 0;
+        for (int i = 0; i < words; i++) {
+            long skip = states[i] & anySegments[i];
+            states[i] |= (skip << 1) | carry;
+            carry = skip >>> 63;
+        }
+    }
+
+    /** Advance the automaton over one segment of a name.
+     *
+     * @return false if no states remain active
+     */
+    private boolean step(long[] states, long[] next, String segment) {
+        long[] literal = literals.getOrDefault(segment, NO_STATES);
+        long carry = 0;
+        long active = 0;
+        for (int i = 0; i < words; i++) {
+            long consume = states[i] & (anySegment[i] | (literal.length == 0 ? 0 : literal[i]));
+            next[i] = (consume << 1) | carry | (states[i] & anySegments[i]);
+            carry = consume >>> 63;
+            active |= next[i];
+        }
+        if (active == 0) return false;
+        close(next);
+        return true;
+    }
+
+    /** Check whether a name matches this pattern.
+     *
+     * @param name Name to match
+     * @return true if the whole of the name matches the whole of this pattern
+     */
+    public boolean matches(AbstractImmutableList<String,?> name) {
+        long[] states = new long[words];
+        long[] next = new long[words];
+        states[0] = 1;
+        close(states);
+        for (AbstractImmutableList<String,?> current = name; !current.isEmpty(); current = current.parent) {
+            if (!step(states, next, current.part)) return false;
+            long[] swap = states; states = next; next = swap;
+        }
+        return isSet(states, length);
+    }
+
+    /** Check whether this pattern contains any wildcard parts.
+     *
+     * @return true if this pattern can only match a single name
+     */
+    public boolean isLiteral() {
+        for (int i = 0; i < words; i++)
+            if ((anySegment[i] | anySegments[i]) != 0) return false;
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof NamePattern && pattern.equals(((NamePattern)other).pattern);
+    }
+
+    @Override
+    public int hashCode() {
+        return pattern.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return pattern.toString();
+    }
+}
@@ -0,0 +1,193 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/** Index of many glob patterns which can be matched against a name in a single pass.
+ *
+ * Patterns (see NamePattern) are stored in a trie keyed by segment, starting from
+ * the last segment of the pattern. A name is matched by walking it from its last
+ * segment back to the root, keeping the set of trie nodes which are still live;
+ * thus the cost of a lookup depends on the depth of the name and the fan-out of
+ * wildcards in the trie rather than on the number of patterns.
+ *
+ * Patterns may be added and removed while lookups are running. Each trie node
+ * holds its children and values in concurrent maps, so there is no global lock;
+ * lookups are weakly consistent with respect to concurrent updates.
+ *
+ * An index may be created with a NameComparison policy, in which case the literal
+ * segments of patterns, and the names matched against them, are folded under the
+ * policy (using the folded form cached in each name).
+ *
+ * @author Jonathan Essex
+ * @param <V> Value type (e.g. subscriber) associated with each pattern
+ */
+public class NamePatternIndex<V> {
+
+    private static class Node<V> extends TrieNode<Node<V>> {
+        final boolean anySegments;
+        final Set<V> values = ConcurrentHashMap.newKeySet();
+
+        Node(Node<V> parent, String segment) {
+            super(parent, segment);
+            this.anySegments = NamePattern.ANY_SEGMENTS.equals(segment);
+        }
+
+        @Override
+        boolean isUnused() {
+            return !values.iterator().hasNext() && !children.keys().hasMoreElements();
+        }
+    }
+
+    private final Node<V> root = new Node<>(null, null);
+    private final NameComparison comparison;
+
+    /** Create an index with the given comparison policy.
+     *
+     * @param comparison Policy under which literal segments are compared
+     */
+    public NamePatternIndex(NameComparison comparison) {
+        this.comparison = comparison;
+    }
+
+    /** Create an index in which literal segments are compared exactly. */
+    public NamePatternIndex() {
+        this(NameComparison.EXACT);
+    }
+
+    private Node<V> find(QualifiedName pattern) {
+        Node<V> node = root;
+        for (QualifiedName current = pattern.fold(comparison); node != null && !current.isEmpty(); current = current.parent)
+            node = node.children.get(current.part);
+        return node;
+    }
+
+    private Node<V> findOrCreate(QualifiedName pattern) {
+        Node<V> node = root;
+        for (QualifiedName current = pattern.fold(comparison); !current.isEmpty(); current = current.parent) {
+            final Node<V> parent = node;
+            node = parent.children.computeIfAbsent(current.part, segment -> new Node<>(parent, segment));
+        }
+        return node;
+    }
+
+    /** Add a pattern to the index.
+     *
+     * @param pattern Compiled pattern
+     * @param value Value to return when a name matches the pattern
+     * @return true if the value was not already associated with the pattern
+     */
+    public boolean add(NamePattern pattern, V value) {
+        while (true) {
+            Node<V> node = findOrCreate(pattern.pattern);
+            boolean added = node.values.add(value);
+            if (!node.isDetached()) return added;
+        }
+    }
+
+    /** Add a pattern to the index.
+     *
+     * @param pattern Qualified name whose parts are literals, '*' or '**'
+     * @param value Value to return when a name matches the pattern
+     * @return true if the value was not already associated with the pattern
+     */
+    public boolean add(QualifiedName pattern, V value) {
+        return add(NamePattern.compile(pattern), value);
+    }
+
+    /** Remove a pattern from the index.
+     *
+     * @param pattern Compiled pattern
+     * @param value Value associated with the pattern
+     * @return true if the value was associated with the pattern
+     */
+    public boolean remove(NamePattern pattern, V value) {
+        Node<V> node = find(pattern.pattern);
+        if (node == null || !node.values.remove(value)) return false;
+        node.prune();
+        return true;
+    }
+
+    /** Remove a pattern from the index.
+     *
+     * @param pattern Qualified name whose parts are literals, '*' or '**'
+     * @param value Value associated with the pattern
+     * @return true if the value was associated with the pattern
+     */
+    public boolean remove(QualifiedName pattern, V value) {
+        return remove(NamePattern.compile(pattern), value);
+    }
+
+    /** Add a node and any nodes reachable from it without consuming a segment */
+    private static <V> void addClosure(Set<Node<V>> states, Node<V> node) {
+        if (node != null && states.add(node)) {
+            addClosure(states, node.children.get(NamePattern.ANY_SEGMENTS));
+        }
+    }
+
+    private static <V> Set<Node<V>> newStateSet() {
+        return Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    /** Find the trie nodes for all patterns which match the given name */
+    private Set<Node<V>> matchingNodes(QualifiedName name) {
+        Set<Node<V>> states = newStateSet();
+        addClosure(states, root);
+        for (QualifiedName current = name.fold(comparison); !current.isEmpty() && !states.isEmpty(); current = current.parent) {
+            Set<Node<V>> next = newStateSet();
+            for (Node<V> state : states) {
+                addClosure(next, state.children.get(current.part));
+                addClosure(next, state.children.get(NamePattern.ANY_SEGMENT));
+                if (state.anySegments) addClosure(next, state);
+            }
+            states = next;
+        }
+        return states;
+    }
+
+    /** Call the consumer for every value whose pattern matches the given name.
+     *
+     * A value associated with several matching patterns is passed to the consumer once
+     * for each pattern.
+     *
+     * @param name Name to match
+     * @param consumer Consumer for values whose pattern matches the name
+     */
+    public void forEachMatch(QualifiedName name, Consumer<? super V> consumer) {
+        for (Node<V> state : matchingNodes(name)) state.values.forEach(consumer);
+    }
+
+    /** Get every value whose pattern matches the given name.
+     *
+     * @param name Name to match
+     * @return Values of all patterns matching the name
+     */
+    public Set<V> match(QualifiedName name) {
+        Set<V> result = new HashSet<>();
+        forEachMatch(name, result::add);
+        return result;
+    }
+
+    /** Check if any pattern matches the given name.
+     *
+     * @param name Name to match
+     * @return true if at least one pattern in the index matches the name
+     */
+    public boolean matchesAny(QualifiedName name) {
+        for (Node<V> state : matchingNodes(name)) 
+            if (!state.values.isEmpty()) return true;
+        return false;
+    }
+
+    /** Check if the index contains no patterns.
+     *
+     * @return true if there are no patterns in the index.
+     */
+    public boolean isEmpty() {
+        return root.isUnused();
+    }
+}
@@ -0,0 +1,240 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Bloom filter answering whether any known name may start with a given prefix.
+ *
+ * Adding a name inserts a fingerprint for the name and for each of its ancestors, so
+ * mayContainPrefix gives no false negatives: if any added name starts with a prefix,
+ * it returns true. The name itself is also inserted with a separate salt so that
+ * mayContain can check for exact names. Each distinct prefix and each name added
+ * counts as one insertion when sizing the filter.
+ *
+ * The filter is blocked: all the bits for one fingerprint lie in a single 512 bit
+ * block, so a lookup touches one cache line. Since blocks are loaded unevenly, a
+ * blocked filter needs more bits than a classic one for the same false positive rate;
+ * the size and number of hashes are chosen from a model of the blocked filter in
+ * which the number of fingerprints per block is Poisson distributed.
+ *
+ * Fingerprints are 64 bit hashes computed incrementally from the fingerprint of the
+ * parent, so checking or adding a name walks its parent chain once and allocates
+ * nothing. Names may be added concurrently with lookups.
+ *
+ * @author Jonathan Essex
+ */
+public class NamePrefixFilter {
+
+    private static final int BLOCK_BITS = 512;
+    private static final int BLOCK_LONGS = BLOCK_BITS / 64;
+    /** Bit positions within a block are taken 9 bits at a time from a remixed fingerprint */
+    private static final int POSITIONS_PER_MIX = 7;
+    private static final long EXACT_SALT = 0x9E3779B97F4A7C15L;
+    private static final long ROOT_FINGERPRINT = 0x2545F4914F6CDD1DL;
+
+    private final int blocks;
+    private final int hashes;
+    private final AtomicLongArray bits;
+
+    private NamePrefixFilter(int blocks, int hashes) {
+        this.blocks = blocks;
+        this.hashes = hashes;
+        this.bits = new AtomicLongArray(blocks * BLOCK_LONGS);
+    }
+
+    private NamePrefixFilter(int[] shape) {
+        this(shape[0], shape[1]);
+    }
+
+    /** Create a filter.
+     *
+     * @param expectedPrefixes Expected number of distinct prefixes (all ancestors of all names added)
+     * @param expectedNames Expected number of names added
+     * @param falsePositiveRate Target probability that a check for an absent prefix returns true
+     */
+    public NamePrefixFilter(long expectedPrefixes, long expectedNames, double falsePositiveRate) {
+        this(shapeFor(expectedPrefixes, expectedNames, falsePositiveRate));
+    }
+
+    /** Create a filter.
+     *
+     * Allows for every prefix also being added as a name, which is the most that can
+     * be added without exceeding expectedPrefixes.
+     *
+     * @param expectedPrefixes Expected number of distinct prefixes (all ancestors of all names added)
+     * @param falsePositiveRate Target probability that a check for an absent prefix returns true
+     */
+    public NamePrefixFilter(long expectedPrefixes, double falsePositiveRate) {
+        this(expectedPrefixes, expectedPrefixes, falsePositiveRate);
+    }
+
+    /** Modelled false positive rate of a blocked filter.
+     *
+     * With load fingerprints per block on average, the number in any one block is
+     * Poisson distributed; a block holding i fingerprints has each bit set with
+     * probability 1 - (1 - 1/BLOCK_BITS)^(hashes * i).
+     */
+    private static double falsePositiveRate(double load, int hashes) {
+        double logUnset = Math.log1p(-1.0 / BLOCK_BITS);
+        int limit = (int)(load + 12 * Math.sqrt(load) + 32);
+        double logPoisson = -load;
+        double result = 0;
+        for (int i = 0; i <= limit; i++) {
+            if (i > 0) logPoisson += Math.log(load) - Math.log(i);
+            result += Math.exp(logPoisson + hashes * Math.log(-Math.expm1(hashes * i * logUnset)));
+        }
+        return result;
+    }
+
+    /** Find the number of blocks and hashes for a target false positive rate */
+    private static int[] shapeFor(long expectedPrefixes, long expectedNames, double falsePositiveRate) {
+        if (expectedPrefixes <= 0) throw new IllegalArgumentException("expectedPrefixes must be positive");
+        if (expectedNames < 0) throw new IllegalArgumentException("expectedNames must not be negative");
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1");
+        long insertions = expectedPrefixes + expectedNames;
+        // Start from the load of a classic filter, which is an upper bound, and reduce
+        double load = BLOCK_BITS * Math.log(2) * Math.log(2) / -Math.log(falsePositiveRate);
+        int hashes = bestHashes(load);
+        while (load > 1.0 / BLOCK_BITS && falsePositiveRate(load, hashes) > falsePositiveRate) {
+            load *= 0.98;
+            hashes = bestHashes(load);
+        }
+        long blocks = Math.max(1, (long)Math.ceil(insertions / load));
+        if (blocks * BLOCK_LONGS > Integer.MAX_VALUE) throw new IllegalArgumentException("filter too large");
+        return new int[] { (int)blocks, hashes };
+    }
+
+    /** Number of hashes giving the lowest modelled false positive rate */
+    private static int bestHashes(double load) {
+        int result = 1;
+        double lowest = falsePositiveRate(load, 1);
+        for (int hashes = 2; hashes <= 16; hashes++) {
+            double rate = falsePositiveRate(load, hashes);
+            if (rate < lowest) {
+                result = hashes;
+                lowest = rate;
+            }
+        }
+        return result;
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+
+    /** Compute the fingerprint of a prefix from that of its parent */
+    private static long fingerprint(long parent, String part) {
+        return mix(parent * 31 + (((long)part.length() << 32) | (part.hashCode() & 0xFFFFFFFFL)));
+    }
+
+    private static long fingerprint(QualifiedName name) {
+        if (name.isEmpty()) return ROOT_FINGERPRINT;
+        return fingerprint(fingerprint(name.parent), name.part);
+    }
+
+    private int block(long fingerprint) {
+        return (int)(((fingerprint >>> 32) * blocks) >>> 32) * BLOCK_LONGS;
+    }
+
+    private void set(long fingerprint) {
+        int base = block(fingerprint);
+        long hash = 0;
+        for (int i = 0; i < hashes; i++) {
+            if (i % POSITIONS_PER_MIX == 0) hash = mix(fingerprint + i);
+            int bit = (int)hash & (BLOCK_BITS - 1);
+            hash >>>= 9;
+            int index = base + (bit >>> 6);
+            long mask = 1L << bit;
+            long word;
+            do {
+                word = bits.get(index);
+            } while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask));
+        }
+    }
+
+    private boolean test(long fingerprint) {
+        int base = block(fingerprint);
+        long hash = 0;
+        for (int i = 0; i < hashes; i++) {
+            if (i % POSITIONS_PER_MIX == 0) hash = mix(fingerprint + i);
+            int bit = (int)hash & (BLOCK_BITS - 1);
+            hash >>>= 9;
+            if ((bits.get(base + (bit >>> 6)) & (1L << bit)) == 0) return false;
+        }
+        return true;
+    }
+
+    /** Insert the fingerprints of a name and its ancestors, returning the name's fingerprint */
+    private long addPrefixes(QualifiedName name) {
+        if (name.isEmpty()) return ROOT_FINGERPRINT;
+        long result = fingerprint(addPrefixes(name.parent), name.part);
+        set(result);
+        return result;
+    }
+
+    /** Add a name to the filter.
+     *
+     * @param name Name to add
+     */
+    public void add(QualifiedName name) {
+        set(mix(addPrefixes(name) ^ EXACT_SALT));
+    }
+
+    /** Check whether any added name may start with a prefix.
+     *
+     * @param prefix Prefix to check
+     * @return false if no added name starts with prefix; true if some added name probably does
+     */
+    public boolean mayContainPrefix(QualifiedName prefix) {
+        return prefix.isEmpty() || test(fingerprint(prefix));
+    }
+
+    /** Check whether a name may have been added.
+     *
+     * @param name Name to check
+     * @return false if name was not added; true if it probably was
+     */
+    public boolean mayContain(QualifiedName name) {
+        return test(mix(fingerprint(name) ^ EXACT_SALT));
+    }
+
+    /** Get the size of the filter.
+     *
+     * @return number of bits in the filter
+     */
+    public long bitSize() {
+        return (long)blocks * BLOCK_BITS;
+    }
+
+    /** Serialize the filter.
+     *
+     * @return bytes from which fromByteArray recreates an equivalent filter
+     */
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(8 + 8 * bits.length());
+        buffer.putInt(blocks).putInt(hashes);
+        for (int i = 0; i < bits.length(); i++) buffer.putLong(bits.get(i));
+        return buffer.array();
+    }
+
+    /** Recreate a filter from serialized form.
+     *
+     * @param bytes Bytes created by toByteArray
+     * @return a filter giving the same answers as the serialized filter
+     */
+    public static NamePrefixFilter fromByteArray(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        int blocks = buffer.getInt();
+        int hashes = buffer.getInt();
+        if (blocks < 1 || hashes < 1 || bytes.length != 8 + 8L * blocks * BLOCK_LONGS)
+            throw new IllegalArgumentException("invalid serialized filter");
+        NamePrefixFilter result = new NamePrefixFilter(blocks, hashes);
+        for (int i = 0; i < result.bits.length(); i++) result.bits.set(i, buffer.getLong());
+        return result;
+    }
+}
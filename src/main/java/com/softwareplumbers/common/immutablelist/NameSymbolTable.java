@@ -0,0 +1,270 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+
+/** Symbol table assigning dense integer ids to Qualified Names.
+ *
+ * Each distinct name is stored once, off-heap, as the id of its parent plus the
+ * characters of its last part; names which share a prefix therefore share the
+ * storage for that prefix. The empty name always has id 0, and ids are assigned
+ * in sequence as new names are added.
+ *
+ * All data (entries, the id to entry index, and the hash table used to look up
+ * ids) is held in direct byte buffers, so the table creates no heap objects per
+ * entry. Lookups use optimistic reads and do not block; adding a new name takes
+ * a write lock.
+ *
+ * @author Jonathan Essex
+ */
+public class NameSymbolTable {
+
+    /** Id of the empty name. */
+    public static final int ROOT_ID = 0;
+
+    // Entry layout: parent id, depth, part length (in chars), then part chars
+    private static final int PARENT_OFFSET = 0;
+    private static final int DEPTH_OFFSET = 4;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int CHARS_OFFSET = 12;
+
+    private final StampedLock lock = new StampedLock();
+    private ByteBuffer entries;
+    private IntBuffer offsets;
+    private IntBuffer table;
+    private int size;
+
+    /** Create a symbol table.
+     *
+     * @param expectedNames Expected number of distinct names (including prefixes)
+     */
+    public NameSymbolTable(int expectedNames) {
+        int capacity = Math.max(16, expectedNames);
+        entries = ByteBuffer.allocateDirect(capacity * 32);
+        offsets = ByteBuffer.allocateDirect(capacity * 4).asIntBuffer();
+        table = ByteBuffer.allocateDirect(tableSize(capacity) * 4).asIntBuffer();
+        // Entry for the empty name
+        entries.putInt(PARENT_OFFSET, -1).putInt(DEPTH_OFFSET, 0).putInt(LENGTH_OFFSET, 0);
+        offsets.put(0, 0);
+        entries.position(CHARS_OFFSET);
+        size = 1;
+    }
+
+    /** Create a symbol table with a default initial capacity. */
+    public NameSymbolTable() {
+        this(1024);
+    }
+
+    private static int tableSize(int capacity) {
+        return Integer.highestOneBit(Math.max(capacity, 8) - 1) << 2;
+    }
+
+    private static int hash(int parentId, String part) {
+        int hash = part.hashCode() * 31 + parentId;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean matches(ByteBuffer entries, int offset, int parentId, String part) {
+        if (entries.getInt(offset + PARENT_OFFSET) != parentId) return false;
+        if (entries.getInt(offset + LENGTH_OFFSET) != part.length()) return false;
+        for (int i = 0; i < part.length(); i++)
+            if (entries.getChar(offset + CHARS_OFFSET + 2 * i) != part.charAt(i)) return false;
+        return true;
+    }
+
+    /** Find the id of a child in the current buffers, or -1 */
+    private int findChild(int parentId, String part) {
+        ByteBuffer entries = this.entries;
+        IntBuffer offsets = this.offsets;
+        IntBuffer table = this.table;
+        int mask = table.capacity() - 1;
+        for (int slot = hash(parentId, part) & mask; ; slot = (slot + 1) & mask) {
+            int id = table.get(slot) - 1;
+            if (id < 0) return -1;
+            if (matches(entries, offsets.get(id), parentId, part)) return id;
+        }
+    }
+
+    private int optimisticRead(IntSupplier reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                int result = reader.getAsInt();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                // Inconsistent read due to a concurrent write; retry under lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.getAsInt();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private <R> R optimisticRead(Supplier<R> reader) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) return result;
+            } catch (RuntimeException e) {
+                // Inconsistent read due to a concurrent write; retry under lock
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private void grow(int partLength) {
+        int required = entries.position() + CHARS_OFFSET + 2 * partLength;
+        if (required > entries.capacity()) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Math.max(required, entries.capacity() * 2));
+            ByteBuffer old = entries.duplicate();
+            old.flip();
+            grown.put(old);
+            entries = grown;
+        }
+        if (size == offsets.capacity()) {
+            IntBuffer grown = ByteBuffer.allocateDirect(offsets.capacity() * 8).asIntBuffer();
+            IntBuffer old = offsets.duplicate();
+            old.clear();
+            grown.put(old);
+            offsets = grown;
+        }
+        if (size * 2 >= table.capacity()) {
+            IntBuffer grown = ByteBuffer.allocateDirect(table.capacity() * 8).asIntBuffer();
+            int mask = grown.capacity() - 1;
+            for (int id = 1; id < size; id++) {
+                int offset = offsets.get(id);
+                int slot = hash(entries.getInt(offset + PARENT_OFFSET), partOf(entries, offset)) & mask;
+                while (grown.get(slot) != 0) slot = (slot + 1) & mask;
+                grown.put(slot, id + 1);
+            }
+            table = grown;
+        }
+    }
+
+    private int addChild(int parentId, String part) {
+        long stamp = lock.writeLock();
+        try {
+            int existing = findChild(parentId, part);
+            if (existing >= 0) return existing;
+            grow(part.length());
+            int id = size;
+            int offset = entries.position();
+            entries.putInt(parentId);
+            entries.putInt(entries.getInt(offsets.get(parentId) + DEPTH_OFFSET) + 1);
+            entries.putInt(part.length());
+            for (int i = 0; i < part.length(); i++) entries.putChar(part.charAt(i));
+            offsets.put(id, offset);
+            int mask = table.capacity() - 1;
+            int slot = hash(parentId, part) & mask;
+            while (table.get(slot) != 0) slot = (slot + 1) & mask;
+            table.put(slot, id + 1);
+            size = id + 1;
+            return id;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /** Get the id of a name, adding it (and any missing prefixes) to the table if necessary.
+     *
+     * @param name Name to look up
+     * @return the id of the name
+     */
+    public int idOf(QualifiedName name) {
+        if (name.isEmpty()) return ROOT_ID;
+        int parentId = idOf(name.parent);
+        int id = optimisticRead(() -> findChild(parentId, name.part));
+        return id >= 0 ? id : addChild(parentId, name.part);
+    }
+
+    /** Get the id of a name if it is in the table.
+     *
+     * @param name Name to look up
+     * @return the id of the name, or -1 if the name is not in the table
+     */
+    public int find(QualifiedName name) {
+        if (name.isEmpty()) return ROOT_ID;
+        int parentId = find(name.parent);
+        if (parentId < 0) return -1;
+        return optimisticRead(() -> findChild(parentId, name.part));
+    }
+
+    private void checkId(int id) {
+        if (id < 0 || id >= size()) throw new IllegalArgumentException("Unknown id " + id);
+    }
+
+    private static String partOf(ByteBuffer entries, int offset) {
+        char[] chars = new char[entries.getInt(offset + LENGTH_OFFSET)];
+        for (int i = 0; i < chars.length; i++) chars[i] = entries.getChar(offset + CHARS_OFFSET + 2 * i);
+        return new String(chars);
+    }
+
+    /** Get the id of the parent of a name.
+     *
+     * @param id Id of name
+     * @return Id of parent name, or -1 if id is ROOT_ID
+     */
+    public int parentId(int id) {
+        checkId(id);
+        return optimisticRead(() -> entries.getInt(offsets.get(id) + PARENT_OFFSET));
+    }
+
+    /** Get the depth of a name.
+     *
+     * @param id Id of name
+     * @return number of parts in the name
+     */
+    public int depth(int id) {
+        checkId(id);
+        return optimisticRead(() -> entries.getInt(offsets.get(id) + DEPTH_OFFSET));
+    }
+
+    /** Get the last part of a name.
+     *
+     * @param id Id of name
+     * @return the last part of the name, or null if id is ROOT_ID
+     */
+    public String part(int id) {
+        checkId(id);
+        if (id == ROOT_ID) return null;
+        return optimisticRead(() -> partOf(entries, offsets.get(id)));
+    }
+
+    /** Get the name with the given id.
+     *
+     * @param id Id of name
+     * @return the name
+     */
+    public QualifiedName nameOf(int id) {
+        if (id == ROOT_ID) return QualifiedName.ROOT;
+        return nameOf(parentId(id)).add(part(id));
+    }
+
+    /** Get the number of names in the table.
+     *
+     * @return number of names, including the empty name and all prefixes
+     */
+    public int size() {
+        return optimisticRead(() -> size);
+    }
+
+    /** Get the number of off-heap bytes used by the table.
+     *
+     * @return total capacity of the direct buffers holding table data
+     */
+    public long offHeapBytes() {
+        return optimisticRead(() -> (long)entries.capacity() + 4L * offsets.capacity() + 4L * table.capacity());
+    }
+}
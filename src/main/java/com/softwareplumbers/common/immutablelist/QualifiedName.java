@@ -5,9 +5,15 @@
  */
 package com.softwareplumbers.common.immutablelist;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collector;
+import java.util.stream.Collectors;
 
 /** A specialization of ImmutableList - a Qualified Name.
  * 
@@ -40,6 +46,45 @@ public class QualifiedName extends AbstractImmutableList<String, QualifiedName>
 		return ROOT.add(part);
 	}
 		
+	/** Construct a new two-part name
+	 * 
+	 * Equivalent to of(first).add(second), but avoids the array allocation of of(String...)
+	 * 
+	 * @param first first part of new name
+	 * @param second second part of new name
+	 * @return a new name
+	 */
+	public static QualifiedName of(String first, String second) {
+		return new QualifiedName(new QualifiedName(ROOT, first), second);
+	}
+	
+	/** Construct a new three-part name
+	 * 
+	 * Equivalent to of(first).add(second).add(third), but avoids the array allocation of of(String...)
+	 * 
+	 * @param first first part of new name
+	 * @param second second part of new name
+	 * @param third third part of new name
+	 * @return a new name
+	 */
+	public static QualifiedName of(String first, String second, String third) {
+		return new QualifiedName(of(first, second), third);
+	}
+	
+	/** Construct a new four-part name
+	 * 
+	 * Equivalent to of(first).add(second).add(third).add(fourth), but avoids the array allocation of of(String...)
+	 * 
+	 * @param first first part of new name
+	 * @param second second part of new name
+	 * @param third third part of new name
+	 * @param fourth fourth part of new name
+	 * @return a new name
+	 */
+	public static QualifiedName of(String first, String second, String third, String fourth) {
+		return new QualifiedName(of(first, second, third), fourth);
+	}
+	
 	/** Preferred way to construct a new list 
 	 * 
 	 * Equivalent to empty().add(parts)
@@ -61,6 +106,49 @@ public class QualifiedName extends AbstractImmutableList<String, QualifiedName>
 	public static QualifiedName parse(String list, String separator) {
 		return ROOT.addParsed(Function.identity(), list, separator);
 	}    
+    
+    /** Parse a string into an ImmutableList using the given separator and segment pool.
+     * 
+     * Unlike parse(list, separator), the separator is matched literally rather than as a
+     * regular expression; see addParsed(converter, toParse, separator, escape, pool).
+     * 
+     * @param list String to parse
+     * @param separator Separator string (not a regular expression)
+     * @param pool Pool used to obtain a canonical string for each part
+     * @return A list consisting of elements of the given string, split by the given separator
+     */
+	public static QualifiedName parse(CharSequence list, String separator, SegmentPool pool) {
+		return ROOT.addParsed(Function.identity(), list, separator, DEFAULT_ESCAPE, pool);
+	}    
+
+    /** Collector which accumulates a stream of parts into a QualifiedName.
+     * 
+     * Parts are accumulated into an array buffer, and buffers from parallel 
+     * streams are concatenated; the name itself is built once, when the buffer 
+     * is finished.
+     * 
+     * @return a Collector which collects strings into a name in encounter order
+     */
+    public static Collector<String, ?, QualifiedName> toQualifiedName() {
+        return Collector.of(
+            ArrayList<String>::new, 
+            ArrayList::add, 
+            (left, right) -> { left.addAll(right); return left; }, 
+            ROOT::addAll
+        );
+    }
+    
+    /** Collector which groups a stream of names by their prefix.
+     * 
+     * Names shorter than the given depth are grouped under themselves. Since a prefix is
+     * an ancestor of the name, no new name objects are created for the keys.
+     * 
+     * @param depth Number of parts in the prefix used to group names
+     * @return a Collector which groups names into lists by prefix, in prefix order
+     */
+    public static Collector<QualifiedName, ?, SortedMap<QualifiedName, List<QualifiedName>>> groupingByPrefix(int depth) {
+        return Collectors.groupingBy(name -> name.left(depth), TreeMap::new, Collectors.toList());
+    }
 
     @Override
     public QualifiedName getEmpty() {
@@ -72,6 +160,49 @@ public class QualifiedName extends AbstractImmutableList<String, QualifiedName>
         return new QualifiedName(this, part);
     }
     
+    /** Compare a name with another object
+     * 
+     * @param other Other name to compare
+     * @return true if other is a QualifiedName or LazyQualifiedName with the same parts.
+     */
+    @Override
+    public boolean equals(Object other) {
+        if (other instanceof LazyQualifiedName) return other.equals(this);
+        return super.equals(other);
+    }
+    
+    /** Fold each part of the name under a comparison policy.
+     * 
+     * The result is cached in this node, alongside its rendering, and is built from the
+     * (cached) folded parent; so folding a name again is O(1), and folding a new child of
+     * a folded name only folds the new part. If the name is already folded, returns this
+     * name. Only the most recently used policy is cached in each node, and the cached
+     * result keeps the folded name reachable for as long as this name is.
+     * 
+     * @param comparison Comparison policy
+     * @return A name whose parts are the folded parts of this name
+     */
+    public QualifiedName fold(NameComparison comparison) {
+        if (isEmpty() || comparison == NameComparison.EXACT) return this;
+        Object cached = derived(comparison);
+        if (cached != null) return (QualifiedName)cached;
+        QualifiedName foldedParent = parent.fold(comparison);
+        String foldedPart = comparison.fold(part);
+        QualifiedName result = foldedParent == parent && foldedPart.equals(part) ? this : foldedParent.add(foldedPart);
+        cacheDerived(comparison, result);
+        if (result != this) result.cacheDerived(comparison, result);
+        return result;
+    }
+    
+    /** Compare this name with a lazily parsed name.
+     * 
+     * @param other Lazily parsed name to compare
+     * @return the same result as compareTo(other.toQualifiedName())
+     */
+    public int compareTo(LazyQualifiedName other) {
+        return -other.compareTo(this);
+    }
+    
     public String join(String separator) {
         return join(Function.identity(), separator);
     }
@@ -85,6 +216,15 @@ public class QualifiedName extends AbstractImmutableList<String, QualifiedName>
 	public boolean matches(QualifiedName pattern, boolean match_all) {
 		return pattern.matches(this, (regex, myPart) -> Pattern.matches(regex, myPart), match_all);
 	}
+    
+    /** Match against a compiled glob pattern
+     * 
+     * @param pattern A glob pattern which may include '*' and '**' wildcards
+     * @return true if this name matches the pattern
+     */
+    public boolean matches(NamePattern pattern) {
+        return pattern.matches(this);
+    }
 
 	/** Apply a qualified name to a map-of-maps (such as JsonObject)
      * @param <T> value type of map
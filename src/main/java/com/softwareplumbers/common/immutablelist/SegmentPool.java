@@ -0,0 +1,48 @@
+package com.softwareplumbers.common.immutablelist;
+
+/** Pool of canonical segment strings.
+ *
+ * Names parsed from text tend to repeat a small number of distinct segments. A
+ * segment pool allows the parser to return a shared String instance for each
+ * distinct segment, rather than allocating a new one per occurrence. Unlike
+ * String.intern, pools are owned by the application, which can control their size
+ * and discard them when no longer needed.
+ *
+ * @author Jonathan Essex
+ */
+@FunctionalInterface
+public interface SegmentPool {
+
+    /** Get the canonical string for a region of a character sequence.
+     *
+     * Implementations should avoid allocating a new string when the region matches
+     * a string already in the pool.
+     *
+     * @param source Characters containing segment
+     * @param start Index of first character of segment
+     * @param end Index after last character of segment
+     * @return A string equal to source.subSequence(start, end)
+     */
+    String intern(CharSequence source, int start, int end);
+
+    /** Get the canonical string for a segment.
+     *
+     * @param segment segment to look up
+     * @return A string equal to segment
+     */
+    default String intern(String segment) {
+        return intern(segment, 0, segment.length());
+    }
+
+    /** Pool which does no pooling; a new string is created for every segment. */
+    public static final SegmentPool NONE = (source, start, end) -> source.subSequence(start, end).toString();
+
+    /** Create a bounded, thread-safe pool.
+     *
+     * @param capacity Maximum number of strings to hold in the pool
+     * @return A new segment pool
+     */
+    public static SegmentPool bounded(int capacity) {
+        return new BoundedSegmentPool(capacity, BoundedSegmentPool.DEFAULT_MAX_LENGTH);
+    }
+}
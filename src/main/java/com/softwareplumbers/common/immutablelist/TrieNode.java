@@ -0,0 +1,59 @@
+package com.softwareplumbers.common.immutablelist;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/** Node of a concurrent trie keyed by segment, from which unused nodes are pruned.
+ *
+ * Shared by ConcurrentNameTree and NamePatternIndex. Children are held in a concurrent
+ * map, so there is no global lock. A node is marked removed before it is unlinked from
+ * its parent, so that an update which raced with the removal can detect (with
+ * isDetached) that it has written to a detached node and retry.
+ *
+ * @author Jonathan Essex
+ * @param <N> Type of node
+ */
+abstract class TrieNode<N extends TrieNode<N>> {
+    final N parent;
+    final String segment;
+    final ConcurrentHashMap<String,N> children = new ConcurrentHashMap<>();
+    volatile boolean removed = false;
+
+    TrieNode(N parent, String segment) {
+        this.parent = parent;
+        this.segment = segment;
+    }
+
+    /** Check whether the node holds nothing, and may be pruned */
+    abstract boolean isUnused();
+
+    /** Check whether this node, or any ancestor, has been unlinked from the trie */
+    boolean isDetached() {
+        for (TrieNode<N> node = this; node.parent != null; node = node.parent)
+            if (node.removed && node.confirmRemoved()) return true;
+        return false;
+    }
+
+    /** Wait for any prune of this node to complete, returning true if it was unlinked */
+    private boolean confirmRemoved() {
+        parent.children.computeIfPresent(segment, (key, existing) -> existing);
+        return removed;
+    }
+
+    /** Remove this node and its ancestors while they are unused, stopping at the root. */
+    void prune() {
+        TrieNode<N> node = this;
+        while (node.parent != null && node.isUnused()) {
+            final TrieNode<N> candidate = node;
+            node.parent.children.computeIfPresent(node.segment, (segment, existing) -> {
+                if (existing != candidate) return existing;
+                // Mark before checking, so a racing update either sees the mark or is seen by the check
+                existing.removed = true;
+                if (existing.isUnused()) return null;
+                existing.removed = false;
+                return existing;
+            });
+            if (!candidate.removed) return;
+            node = node.parent;
+        }
+    }
+}
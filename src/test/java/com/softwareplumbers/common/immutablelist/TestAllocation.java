@@ -0,0 +1,106 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.function.Predicate;
+import org.junit.Before;
+import org.junit.Test;
+
+/** Allocation budgets for read-only operations.
+ * 
+ * Each operation is warmed up and then run many times while measuring the bytes 
+ * allocated by the current thread. The build fails if the average allocation per
+ * call exceeds the budget for that operation.
+ */
+public class TestAllocation {
+    
+    private static final int WARMUP = 50000;
+    private static final int ITERATIONS = 200000;
+    private static final int DEPTH = 8;
+    
+    // Results are written here so that the JIT cannot eliminate the operation under test
+    private static volatile Object sink;
+    private static volatile long sinkLong;
+    
+    private static final Predicate<String> IS_FIRST = part -> part.equals("p0");
+    private static final Predicate<String> IS_MISSING = part -> part.equals("missing");
+    
+    private com.sun.management.ThreadMXBean threads;
+    private QualifiedName name;
+    private QualifiedName other;
+    
+    @Before
+    public void setup() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("per-thread allocation accounting not available", bean instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean)bean;
+        assumeTrue("per-thread allocation accounting not supported", threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        name = QualifiedName.ROOT;
+        other = QualifiedName.ROOT;
+        for (int i = 0; i < DEPTH; i++) {
+            name = name.add("p" + i);
+            other = other.add(new String("p" + i));
+        }
+    }
+    
+    private long allocatedBytes() {
+        return threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+    
+    /** Measure average bytes allocated per call of an operation */
+    private long bytesPerCall(Runnable operation) {
+        for (int i = 0; i < WARMUP; i++) operation.run();
+        long overhead = allocatedBytes();
+        overhead = allocatedBytes() - overhead;
+        long before = allocatedBytes();
+        for (int i = 0; i < ITERATIONS; i++) operation.run();
+        long after = allocatedBytes();
+        return (after - before - overhead) / ITERATIONS;
+    }
+    
+    private void assertBudget(String operation, long budget, Runnable runnable) {
+        long bytes = bytesPerCall(runnable);
+        assertTrue(operation + " allocated " + bytes + " bytes per call, budget is " + budget, bytes <= budget);
+    }
+    
+    @Test
+    public void testSize() {
+        assertBudget("size", 0, () -> sinkLong = name.size());
+    }
+    
+    @Test
+    public void testHashCode() {
+        assertBudget("hashCode", 0, () -> sinkLong = name.hashCode());
+    }
+    
+    @Test
+    public void testEquals() {
+        assertBudget("equals", 0, () -> sinkLong = name.equals(other) ? 1 : 0);
+    }
+    
+    @Test
+    public void testGetFromEnd() {
+        assertBudget("getFromEnd", 0, () -> sink = name.getFromEnd(DEPTH - 1));
+    }
+    
+    @Test
+    public void testIndexFromEnd() {
+        assertBudget("indexFromEnd", 0, () -> sinkLong = name.indexFromEnd(IS_FIRST));
+    }
+    
+    @Test
+    public void testFindLast() {
+        // One Optional when found, none when not
+        assertBudget("findLast", 24, () -> sink = name.findLast(IS_FIRST));
+        assertBudget("findLast (missing)", 0, () -> sink = name.findLast(IS_MISSING));
+    }
+    
+    @Test
+    public void testIteration() {
+        // One iterator, and one array of references to the parts
+        assertBudget("iteration", 32 + 24 + 8 * DEPTH, () -> { for (String part : name) sink = part; });
+    }
+}
@@ -0,0 +1,105 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class TestConcurrentNameTree {
+
+    private static <V> Map<QualifiedName,V> toMap(Iterator<Map.Entry<QualifiedName,V>> entries) {
+        Map<QualifiedName,V> result = new TreeMap<>();
+        entries.forEachRemaining(entry -> result.put(entry.getKey(), entry.getValue()));
+        return result;
+    }
+
+    @Test
+    public void testGetPutRemove() {
+        ConcurrentNameTree<String> tree = new ConcurrentNameTree<>();
+        assertNull(tree.putIfAbsent(QualifiedName.of("svc","api"), "one"));
+        assertEquals("one", tree.putIfAbsent(QualifiedName.of("svc","api"), "two"));
+        assertEquals("one", tree.get(QualifiedName.of("svc","api")));
+        assertNull(tree.get(QualifiedName.of("svc")));
+        assertNull(tree.get(QualifiedName.of("svc","api","users")));
+        assertEquals("one", tree.put(QualifiedName.of("svc","api"), "three"));
+        assertFalse(tree.remove(QualifiedName.of("svc","api"), "one"));
+        assertTrue(tree.remove(QualifiedName.of("svc","api"), "three"));
+        assertNull(tree.remove(QualifiedName.of("svc","api")));
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    public void testChildrenAndSubtree() {
+        ConcurrentNameTree<Integer> tree = new ConcurrentNameTree<>();
+        tree.put(QualifiedName.of("a"), 1);
+        tree.put(QualifiedName.of("a","b"), 2);
+        tree.put(QualifiedName.of("a","c"), 3);
+        tree.put(QualifiedName.of("a","c","d"), 4);
+        tree.put(QualifiedName.of("a","x","y"), 5);
+        tree.put(QualifiedName.of("z"), 6);
+
+        Map<QualifiedName,Integer> children = toMap(tree.children(QualifiedName.of("a")));
+        assertEquals(2, children.size());
+        assertEquals(Integer.valueOf(2), children.get(QualifiedName.of("a","b")));
+        assertEquals(Integer.valueOf(3), children.get(QualifiedName.of("a","c")));
+
+        Map<QualifiedName,Integer> subtree = toMap(tree.subtree(QualifiedName.of("a")));
+        assertEquals(5, subtree.size());
+        assertEquals(Integer.valueOf(5), subtree.get(QualifiedName.of("a","x","y")));
+        assertFalse(subtree.containsKey(QualifiedName.of("z")));
+        assertFalse(tree.subtree(QualifiedName.of("q")).hasNext());
+    }
+
+    @Test
+    public void testListeners() {
+        ConcurrentNameTree<String> tree = new ConcurrentNameTree<>();
+        List<String> events = new ArrayList<>();
+        ConcurrentNameTree.Listener<String> listener = (name, oldValue, newValue) -> events.add(name + ":" + oldValue + "->" + newValue);
+        tree.addListener(QualifiedName.of("a"), listener);
+        tree.put(QualifiedName.of("a","b"), "x");
+        tree.put(QualifiedName.of("c","d"), "y");
+        tree.put(QualifiedName.of("a","b"), "z");
+        tree.remove(QualifiedName.of("a","b"));
+        assertEquals(3, events.size());
+        assertEquals("a.b:null->x", events.get(0));
+        assertEquals("a.b:x->z", events.get(1));
+        assertEquals("a.b:z->null", events.get(2));
+        assertTrue(tree.removeListener(QualifiedName.of("a"), listener));
+        tree.put(QualifiedName.of("a","b"), "x");
+        assertEquals(3, events.size());
+    }
+
+    @Test
+    public void testConcurrentUpdates() throws InterruptedException {
+        ConcurrentNameTree<Integer> tree = new ConcurrentNameTree<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    QualifiedName name = QualifiedName.of("svc", "n" + (i % 7), "t" + thread);
+                    tree.putIfAbsent(name, i);
+                    tree.subtree(QualifiedName.of("svc")).forEachRemaining(entry -> {});
+                    tree.remove(name);
+                }
+                tree.put(QualifiedName.of("svc", "final", "t" + thread), thread);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Map<QualifiedName,Integer> remaining = toMap(tree.subtree(QualifiedName.ROOT));
+        assertEquals(4, remaining.size());
+        for (int t = 0; t < 4; t++)
+            assertEquals(Integer.valueOf(t), remaining.get(QualifiedName.of("svc", "final", "t" + t)));
+    }
+}
@@ -3,12 +3,21 @@ package com.softwareplumbers.common.immutablelist;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.util.Map;
 import java.util.Optional;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import org.junit.Test;
 
@@ -234,6 +243,66 @@ public class TestImmutableList {
 		assertTrue(result3.isEmpty());
 	}    
 
+    @Test
+    public void testSlicingTestsEachPartOnce() {
+        ImmutableList<Integer> TEST1 = ImmutableList.of(1,2,3,2,4,5);
+        int[] tests = new int[1];
+        Predicate<Integer> isTwo = elem -> { tests[0]++; return elem.equals(2); };
+        assertSame(TEST1.parent.parent.parent.parent, TEST1.upTo(isTwo));
+        assertTrue(tests[0] <= TEST1.size());
+        tests[0] = 0;
+        assertEquals(ImmutableList.of(3,2,4,5), TEST1.from(isTwo));
+        assertTrue(tests[0] <= TEST1.size());
+        tests[0] = 0;
+        assertEquals(ImmutableList.of(4,5), TEST1.fromLast(isTwo));
+        assertTrue(tests[0] <= TEST1.size());
+        tests[0] = 0;
+        assertEquals(1, TEST1.indexOf(isTwo));
+        assertTrue(tests[0] <= TEST1.size());
+    }
+
+    @Test
+    public void testSetInsertRemove() {
+        ImmutableList<String> TEST1 = ImmutableList.of("a","b","c","d");
+        ImmutableList<String> set = TEST1.set(1, "x");
+        assertEquals(ImmutableList.of("a","x","c","d"), set);
+        assertSame(TEST1.parent.parent.parent, set.parent.parent.parent);
+        assertEquals(ImmutableList.of("a","b","c","x"), TEST1.set(3, "x"));
+        assertSame(TEST1.parent, TEST1.set(3, "x").parent);
+        assertEquals(ImmutableList.of("x","a","b","c","d"), TEST1.insert(0, "x"));
+        assertEquals(ImmutableList.of("a","b","x","c","d"), TEST1.insert(2, "x"));
+        assertEquals(ImmutableList.of("a","b","c","d","x"), TEST1.insert(4, "x"));
+        assertSame(TEST1, TEST1.insert(4, "x").parent);
+        assertEquals(ImmutableList.of("b","c","d"), TEST1.remove(0));
+        assertEquals(ImmutableList.of("a","b","d"), TEST1.remove(2));
+        assertSame(TEST1.parent, TEST1.remove(3));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testSetOutOfBounds() {
+        ImmutableList.of("a","b").set(2, "x");
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testInsertOutOfBounds() {
+        ImmutableList.of("a","b").insert(3, "x");
+    }
+
+    @Test
+    public void testBulkEdits() {
+        ImmutableList<String> TEST1 = ImmutableList.of("a","b","c","d","e");
+        Map<Integer,String> values = new TreeMap<>();
+        values.put(3, "y");
+        values.put(1, "x");
+        ImmutableList<String> set = TEST1.setAll(values);
+        assertEquals(ImmutableList.of("a","x","c","y","e"), set);
+        assertSame(TEST1.leftFromEnd(4), set.leftFromEnd(4));
+        assertSame(TEST1, TEST1.setAll(new TreeMap<>()));
+        assertEquals(ImmutableList.of("a","b","x","y","c","d","e"), TEST1.insertAll(2, ImmutableList.of("x","y")));
+        assertEquals(ImmutableList.of("b","d"), TEST1.removeAll(4, 0, 2, 2));
+        assertSame(TEST1, TEST1.removeAll());
+    }
+
     @Test
 	public void testRight() {
 		ImmutableList<String> ABCDEF = ImmutableList.of("a","b","c","d","e","f");
@@ -303,6 +372,52 @@ public class TestImmutableList {
         }
     }
     
+    @Test
+    public void testTransformParallel() throws TestException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ImmutableList<String> n1 = ImmutableList.of("x","abc","2","def","y");
+            assertEquals(ImmutableList.of("X","ABC","2","DEF","Y"), n1.transformParallel(String::toUpperCase, executor));
+            assertEquals(ImmutableList.empty(), ImmutableList.<String>empty().transformParallel(String::toUpperCase, executor));
+            assertEquals(n1, n1.transformParallel(TestImmutableList::testTransform, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test(expected = TestException.class)
+    public void testTransformParallelWithCheckedException() throws TestException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            ImmutableList.of("x","ERROR","2").transformParallel(TestImmutableList::testTransform, executor);
+        } finally {
+            executor.shutdown();
+        }
+    }
+    
+    @Test
+    public void testTransformAsync() throws Exception {
+        ImmutableList<String> n1 = ImmutableList.of("x","abc","2");
+        assertEquals(ImmutableList.of("X","ABC","2"), n1.transformAsync(String::toUpperCase).get());
+        CompletableFuture<ImmutableList<String>> failed = ImmutableList.of("x","ERROR").transformAsync(TestImmutableList::testTransform);
+        try {
+            failed.get();
+            fail("expected exception");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof TestException);
+        }
+    }
+    
+    @Test
+    public void testToImmutableList() {
+        assertEquals(ImmutableList.of("a","b","c"), Stream.of("a","b","c").collect(ImmutableList.toImmutableList()));
+        assertEquals(ImmutableList.empty(), Stream.<String>empty().collect(ImmutableList.toImmutableList()));
+        ImmutableList<Integer> expected = IntStream.range(0, 1000).boxed().collect(ImmutableList.toImmutableList());
+        assertEquals(expected, IntStream.range(0, 1000).parallel().boxed().collect(ImmutableList.toImmutableList()));
+        assertEquals(1000, expected.size());
+        assertEquals(Integer.valueOf(999), expected.part);
+    }
+    
 	@Test
 	public void testFind() {
 		ImmutableList<String> TEST1 = ImmutableList.of("one","two","three","four","five");
@@ -0,0 +1,66 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestLazyQualifiedName {
+
+    private static final String[] SOURCES = {
+        "", "/", "a", "/a/b/c", "a/b/c/", "a\\/b/c", "a\\\\/b", "x//y", "abc/abd", "ab/abc", "b", "a/c", "z/a\\/b/c", "a/b\\"
+    };
+
+    private static int sign(int value) {
+        return Integer.signum(value);
+    }
+
+    @Test
+    public void testMatchesEagerParse() {
+        for (String source : SOURCES) {
+            LazyQualifiedName lazy = LazyQualifiedName.parse(source, "/");
+            QualifiedName eager = QualifiedName.parse(source, "/", SegmentPool.NONE);
+            assertEquals(source, eager, lazy.toQualifiedName());
+            assertEquals(source, eager.size(), lazy.size());
+            assertEquals(source, eager.hashCode(), lazy.hashCode());
+            assertTrue(source, lazy.equals(eager));
+            assertTrue(source, eager.equals(lazy));
+            assertEquals(source, eager.toString(), lazy.toString());
+            for (int i = 0; i < eager.size(); i++) assertEquals(source, eager.get(i), lazy.get(i));
+        }
+    }
+
+    @Test
+    public void testComparison() {
+        for (String left : SOURCES) {
+            for (String right : SOURCES) {
+                QualifiedName eagerLeft = QualifiedName.parse(left, "/", SegmentPool.NONE);
+                QualifiedName eagerRight = QualifiedName.parse(right, "/", SegmentPool.NONE);
+                LazyQualifiedName lazyLeft = LazyQualifiedName.parse(left, "/");
+                LazyQualifiedName lazyRight = LazyQualifiedName.parse(right, "/");
+                int expected = sign(eagerLeft.compareTo(eagerRight));
+                assertEquals(left + " " + right, expected, sign(lazyLeft.compareTo(lazyRight)));
+                assertEquals(left + " " + right, expected, sign(lazyLeft.compareTo(eagerRight)));
+                assertEquals(left + " " + right, expected, sign(eagerLeft.compareTo(lazyRight)));
+                assertEquals(left + " " + right, expected == 0, lazyLeft.equals(lazyRight));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptySeparator() {
+        LazyQualifiedName.parse("abc", "");
+    }
+
+    @Test
+    public void testParentAndGetFromEnd() {
+        LazyQualifiedName lazy = LazyQualifiedName.parse("svc/api\\/v1/users", "/");
+        assertEquals("users", lazy.getFromEnd(0));
+        assertEquals("api/v1", lazy.getFromEnd(1));
+        assertEquals(QualifiedName.of("svc","api/v1"), lazy.parent().toQualifiedName());
+        assertEquals(lazy.parent(), QualifiedName.of("svc","api/v1"));
+        assertTrue(lazy.parent().parent().parent().isEmpty());
+        assertFalse(lazy.equals(lazy.parent()));
+    }
+}
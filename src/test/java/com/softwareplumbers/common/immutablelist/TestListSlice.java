@@ -0,0 +1,83 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+
+public class TestListSlice {
+
+    private static final QualifiedName NAME = QualifiedName.of("org","example","svc","api","users");
+
+    @Test
+    public void testEquivalentToRight() {
+        for (int n = 0; n <= 7; n++) {
+            ListSlice<String,QualifiedName> slice = NAME.rightSlice(n);
+            QualifiedName right = NAME.right(n);
+            assertEquals(right.size(), slice.size());
+            assertEquals(right, slice);
+            assertEquals(slice, right);
+            assertTrue(right.equals(slice));
+            assertEquals(right.hashCode(), slice.hashCode());
+            assertEquals(0, slice.compareTo(right));
+            assertEquals(0, right.compareTo(slice));
+            assertEquals(right.join("/"), slice.join(s -> s, "/"));
+            assertEquals(right.toString(), slice.toString());
+            List<String> parts = new ArrayList<>();
+            for (String part : slice) parts.add(part);
+            List<String> expected = new ArrayList<>();
+            for (String part : right) expected.add(part);
+            assertEquals(expected, parts);
+            assertEquals(right, slice.compact());
+        }
+    }
+
+    @Test
+    public void testRightFromStartSlice() {
+        assertEquals(NAME.rightFromStart(2), NAME.rightFromStartSlice(2));
+        assertEquals(QualifiedName.of("svc","api","users"), NAME.rightFromStartSlice(2));
+        assertEquals("svc", NAME.rightFromStartSlice(2).get(0));
+        assertEquals("users", NAME.rightFromStartSlice(2).getFromEnd(0));
+    }
+
+    @Test
+    public void testPredicateSlices() {
+        ImmutableList<Integer> list = ImmutableList.of(1,2,3,2,4,5);
+        assertEquals(list.from(e -> e.equals(2)), list.fromSlice(e -> e.equals(2)));
+        assertEquals(list.fromLast(e -> e.equals(2)), list.fromLastSlice(e -> e.equals(2)));
+        assertEquals(list, list.fromSlice(e -> e.equals(6)));
+        assertEquals(list, list.fromLastSlice(e -> e.equals(6)));
+        assertTrue(list.fromLastSlice(e -> e.equals(5)).isEmpty());
+    }
+
+    @Test
+    public void testCompare() {
+        ListSlice<String,QualifiedName> slice = NAME.rightSlice(2);
+        assertTrue(slice.compareTo(QualifiedName.of("api","zzz")) < 0);
+        assertTrue(slice.compareTo(QualifiedName.of("a")) > 0);
+        assertTrue(slice.compareTo(NAME.rightSlice(3)) < 0);
+        assertTrue(QualifiedName.of("api","zzz").compareTo(slice) > 0);
+        assertNotEquals(slice, QualifiedName.of("api","user"));
+        assertEquals(slice, QualifiedName.of("x","api","users").rightSlice(2));
+    }
+
+    @Test
+    public void testCompactIsStandalone() {
+        QualifiedName compact = NAME.rightSlice(2).compact();
+        assertSame(QualifiedName.ROOT, compact.parent.parent);
+        assertFalse(compact.parent == NAME.parent);
+    }
+
+    @Test
+    public void testSymmetricEquals() {
+        List<Object> items = Arrays.asList(NAME.rightSlice(1), QualifiedName.of("users"));
+        assertEquals(items.get(0), items.get(1));
+        assertEquals(items.get(1), items.get(0));
+    }
+}
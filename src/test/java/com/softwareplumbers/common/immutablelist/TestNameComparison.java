@@ -0,0 +1,113 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Test;
+
+public class TestNameComparison {
+
+    @Test
+    public void testFold() {
+        assertEquals("strasse", NameComparison.CASE_INSENSITIVE.fold("STRASSE"));
+        assertEquals("ss", NameComparison.CASE_INSENSITIVE.fold("\u00df"));
+        assertEquals("\u00e9", NameComparison.NFC_CASE_FOLDED.fold("E\u0301"));
+        assertEquals("E\u0301", NameComparison.EXACT.fold("E\u0301"));
+    }
+
+    @Test
+    public void testFoldedNameCached() {
+        QualifiedName name = QualifiedName.of("Svc","API","Users");
+        QualifiedName folded = name.fold(NameComparison.CASE_INSENSITIVE);
+        assertEquals(QualifiedName.of("svc","api","users"), folded);
+        assertSame(folded, name.fold(NameComparison.CASE_INSENSITIVE));
+        assertSame(folded, folded.fold(NameComparison.CASE_INSENSITIVE));
+        assertSame(folded.parent, name.parent.fold(NameComparison.CASE_INSENSITIVE));
+        QualifiedName lower = QualifiedName.of("svc","api");
+        assertSame(lower, lower.fold(NameComparison.CASE_INSENSITIVE));
+        assertSame(name, name.fold(NameComparison.EXACT));
+    }
+
+    @Test
+    public void testPolicyOperations() {
+        NameComparison policy = NameComparison.CASE_INSENSITIVE;
+        QualifiedName a = QualifiedName.of("Svc","API","Users");
+        QualifiedName b = QualifiedName.of("svc","api","USERS");
+        assertTrue(policy.equals(a, b));
+        assertFalse(NameComparison.EXACT.equals(a, b));
+        assertEquals(policy.hashCode(a), policy.hashCode(b));
+        assertEquals(0, policy.compare(a, b));
+        assertTrue(policy.compare(a, QualifiedName.of("svc","api","zed")) < 0);
+        assertTrue(policy.startsWith(a, QualifiedName.of("SVC","api")));
+        assertFalse(policy.startsWith(QualifiedName.of("SVC"), a));
+        assertTrue(policy.matches(a, policy.compile(QualifiedName.of("SVC","*","users"))));
+        assertFalse(policy.matches(a, policy.compile(QualifiedName.of("web","**"))));
+        Map<QualifiedName,Integer> map = new TreeMap<>(policy);
+        map.put(a, 1);
+        assertEquals(Integer.valueOf(1), map.get(b));
+    }
+
+    @Test
+    public void testNormalizedEquality() {
+        QualifiedName composed = QualifiedName.of("caf\u00e9");
+        QualifiedName decomposed = QualifiedName.of("CAFE\u0301");
+        assertTrue(NameComparison.NFC_CASE_FOLDED.equals(composed, decomposed));
+        assertFalse(NameComparison.CASE_INSENSITIVE.equals(composed, decomposed));
+    }
+
+    @Test
+    public void testTreeWithPolicy() {
+        ConcurrentNameTree<String> tree = new ConcurrentNameTree<>(NameComparison.CASE_INSENSITIVE);
+        tree.put(QualifiedName.of("Svc","Users"), "users");
+        assertEquals("users", tree.get(QualifiedName.of("SVC","users")));
+        assertTrue(tree.containsKey(QualifiedName.of("svc","USERS")));
+        Iterator<Map.Entry<QualifiedName,String>> entries = tree.subtree(QualifiedName.of("SVC"));
+        assertEquals(QualifiedName.of("svc","users"), entries.next().getKey());
+        assertEquals("users", tree.remove(QualifiedName.of("svc","users")));
+        assertNull(tree.get(QualifiedName.of("Svc","Users")));
+        ConcurrentNameTree<String> exact = new ConcurrentNameTree<>();
+        exact.put(QualifiedName.of("Svc"), "x");
+        assertNull(exact.get(QualifiedName.of("svc")));
+    }
+
+    @Test
+    public void testTreeListenerSeesFoldedName() {
+        ConcurrentNameTree<String> tree = new ConcurrentNameTree<>(NameComparison.CASE_INSENSITIVE);
+        List<QualifiedName> changed = new ArrayList<>();
+        tree.addListener(QualifiedName.of("SVC"), (name, oldValue, newValue) -> changed.add(name));
+        tree.put(QualifiedName.of("Svc","Users"), "users");
+        assertEquals(changed.get(0), tree.children(QualifiedName.of("Svc")).next().getKey());
+        tree.remove(QualifiedName.of("svc","USERS"));
+        assertEquals(Arrays.asList(QualifiedName.of("svc","users"), QualifiedName.of("svc","users")), changed);
+    }
+
+    @Test
+    public void testFoldCachedWithRendering() {
+        QualifiedName name = QualifiedName.of("Svc","Users");
+        String text = name.render(AbstractImmutableList.DEFAULT_RENDERER);
+        QualifiedName folded = name.fold(NameComparison.CASE_INSENSITIVE);
+        assertSame(text, name.render(AbstractImmutableList.DEFAULT_RENDERER));
+        assertSame(folded, name.fold(NameComparison.CASE_INSENSITIVE));
+        assertSame(folded, folded.fold(NameComparison.CASE_INSENSITIVE));
+    }
+
+    @Test
+    public void testIndexWithPolicy() {
+        NamePatternIndex<String> index = new NamePatternIndex<>(NameComparison.CASE_INSENSITIVE);
+        index.add(QualifiedName.of("Svc","*","Get"), "get");
+        index.add(NamePattern.compile(QualifiedName.of("SVC","**")), "all");
+        assertEquals(2, index.match(QualifiedName.of("svc","users","GET")).size());
+        assertTrue(index.remove(QualifiedName.of("svc","*","get"), "get"));
+        assertEquals(Collections.singleton("all"), index.match(QualifiedName.of("svc","users","get")));
+    }
+}
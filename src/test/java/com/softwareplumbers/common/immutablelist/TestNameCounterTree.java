@@ -0,0 +1,141 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.SortedMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class TestNameCounterTree {
+
+    private static final QualifiedName USERS_GET = QualifiedName.of("svc","api","users","get");
+    private static final QualifiedName USERS_PUT = QualifiedName.of("svc","api","users","put");
+    private static final QualifiedName ORDERS = QualifiedName.of("svc","api","orders");
+
+    @Test
+    public void testTotals() {
+        NameCounterTree tree = new NameCounterTree();
+        tree.increment(USERS_GET);
+        tree.increment(USERS_GET);
+        tree.add(USERS_PUT, 5);
+        tree.add(ORDERS, 10);
+        tree.increment(QualifiedName.of("svc","api"));
+        assertEquals(2, tree.get(USERS_GET));
+        assertEquals(1, tree.get(QualifiedName.of("svc","api")));
+        assertEquals(0, tree.get(QualifiedName.of("svc")));
+        assertEquals(7, tree.total(QualifiedName.of("svc","api","users")));
+        assertEquals(18, tree.total(QualifiedName.of("svc","api")));
+        assertEquals(18, tree.total(QualifiedName.ROOT));
+        assertEquals(0, tree.total(QualifiedName.of("other")));
+        assertEquals(5, tree.remove(USERS_PUT));
+        assertEquals(13, tree.total(QualifiedName.of("svc")));
+    }
+
+    @Test
+    public void testSnapshot() {
+        NameCounterTree tree = new NameCounterTree();
+        tree.add(USERS_GET, 2);
+        tree.add(USERS_PUT, 5);
+        tree.add(ORDERS, 10);
+        SortedMap<QualifiedName,Long> snapshot = tree.snapshot();
+        assertEquals(Long.valueOf(17), snapshot.get(QualifiedName.ROOT));
+        assertEquals(Long.valueOf(17), snapshot.get(QualifiedName.of("svc","api")));
+        assertEquals(Long.valueOf(7), snapshot.get(QualifiedName.of("svc","api","users")));
+        assertEquals(Long.valueOf(2), snapshot.get(USERS_GET));
+        assertEquals(7, snapshot.size());
+        SortedMap<QualifiedName,Long> users = tree.snapshot(QualifiedName.of("svc","api","users"));
+        assertEquals(3, users.size());
+        assertEquals(QualifiedName.of("svc","api","users"), users.firstKey());
+    }
+
+    @Test
+    public void testCachedTotals() {
+        NameCounterTree tree = new NameCounterTree(1, TimeUnit.HOURS);
+        tree.add(USERS_GET, 2);
+        assertEquals(2, tree.total(QualifiedName.of("svc")));
+        tree.add(USERS_GET, 3);
+        assertEquals(2, tree.total(QualifiedName.of("svc")));
+        assertEquals(5, tree.get(USERS_GET));
+        tree.invalidate();
+        assertEquals(5, tree.total(QualifiedName.of("svc")));
+        tree.add(USERS_GET, 1);
+        tree.snapshot();
+        assertEquals(6, tree.total(QualifiedName.of("svc")));
+    }
+
+    @Test
+    public void testRemoveFreesCachedTotals() {
+        NameCounterTree tree = new NameCounterTree(1, TimeUnit.HOURS);
+        for (int i = 0; i < 1000; i++) {
+            QualifiedName name = QualifiedName.of("svc", "request" + i);
+            tree.increment(name);
+            assertEquals(1, tree.total(name));
+            tree.remove(name);
+        }
+        assertEquals(0, tree.cachedTotals());
+        tree.add(USERS_GET, 2);
+        assertEquals(2, tree.total(QualifiedName.of("svc")));
+        tree.remove(USERS_GET);
+        assertEquals(0, tree.total(QualifiedName.of("svc")));
+    }
+
+    @Test
+    public void testCachedTotalsBounded() {
+        NameCounterTree tree = new NameCounterTree(1, TimeUnit.HOURS, 100);
+        for (int i = 0; i < 1000; i++) {
+            QualifiedName name = QualifiedName.of("svc", "request" + i);
+            tree.increment(name);
+            assertEquals(1, tree.total(name));
+        }
+        assertEquals(100, tree.cachedTotals());
+        assertEquals(1000, tree.total(QualifiedName.of("svc")));
+        tree.snapshot();
+        assertEquals(100, tree.cachedTotals());
+    }
+
+    @Test
+    public void testFullCacheOfFreshTotals() {
+        NameCounterTree tree = new NameCounterTree(1, TimeUnit.HOURS, 100);
+        for (int i = 0; i < 100; i++) tree.total(QualifiedName.of("fresh" + i));
+        assertEquals(100, tree.cachedTotals());
+        for (int i = 0; i < 1000; i++) {
+            QualifiedName name = QualifiedName.of("svc", "request" + i);
+            tree.increment(name);
+            assertEquals(1, tree.total(name));
+        }
+        // Nothing has expired, and the cache is swept at most once per hour
+        assertEquals(100, tree.cachedTotals());
+        assertEquals(1, tree.sweeps());
+    }
+
+    @Test
+    public void testExpiredTotalsDiscarded() {
+        NameCounterTree tree = new NameCounterTree(1, TimeUnit.NANOSECONDS, 10);
+        for (int i = 0; i < 1000; i++) {
+            QualifiedName name = QualifiedName.of("svc", "request" + i);
+            tree.increment(name);
+            tree.total(name);
+            assertTrue(tree.cachedTotals() <= 10);
+        }
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        NameCounterTree tree = new NameCounterTree();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 10000; i++)
+                    tree.increment(QualifiedName.of("svc", "endpoint" + ((i + thread) % 10)));
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        assertEquals(80000, tree.total(QualifiedName.of("svc")));
+        assertEquals(8000, tree.get(QualifiedName.of("svc","endpoint3")));
+    }
+}
@@ -0,0 +1,125 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Test;
+
+public class TestNameDiff {
+
+    private static List<QualifiedName> sorted(String... names) {
+        TreeSet<QualifiedName> result = new TreeSet<>(NameDiff.ORDER);
+        for (String name : names) result.add(QualifiedName.parse(name, "/"));
+        return new ArrayList<>(result);
+    }
+
+    private static List<NameDiff.Event> diff(List<QualifiedName> from, List<QualifiedName> to) {
+        List<NameDiff.Event> result = new ArrayList<>();
+        new NameDiff(from.iterator(), to.iterator()).forEachRemaining(result::add);
+        return result;
+    }
+
+    private static NameDiff.Event event(NameDiff.Change change, String name, int count) {
+        return new NameDiff.Event(change, QualifiedName.parse(name, "/"), count);
+    }
+
+    @Test
+    public void testOrder() {
+        assertTrue(NameDiff.ORDER.compare(QualifiedName.of("a"), QualifiedName.of("a","b")) < 0);
+        assertTrue(NameDiff.ORDER.compare(QualifiedName.of("a","b"), QualifiedName.of("b")) < 0);
+        assertTrue(NameDiff.ORDER.compare(QualifiedName.of("a","c"), QualifiedName.of("a","b","z")) > 0);
+        assertEquals(0, NameDiff.ORDER.compare(QualifiedName.of("a","b"), QualifiedName.of("a","b")));
+    }
+
+    @Test
+    public void testSubtreeEvents() {
+        List<QualifiedName> from = sorted("a", "a/x", "a/y", "b", "b/1", "b/1/p", "b/2", "c");
+        List<QualifiedName> to = sorted("a", "a/x", "a/y", "b", "b/2", "c", "c/new", "c/new/1", "c/new/2", "d");
+        assertEquals(Arrays.asList(
+            event(NameDiff.Change.UNCHANGED, "a", 3),
+            event(NameDiff.Change.UNCHANGED, "b", 1),
+            event(NameDiff.Change.REMOVED, "b/1", 2),
+            event(NameDiff.Change.UNCHANGED, "b/2", 1),
+            event(NameDiff.Change.UNCHANGED, "c", 1),
+            event(NameDiff.Change.ADDED, "c/new", 3),
+            event(NameDiff.Change.ADDED, "d", 1)
+        ), diff(from, to));
+    }
+
+    @Test
+    public void testEmptySources() {
+        List<QualifiedName> names = sorted("a", "a/b", "c");
+        assertEquals(Arrays.asList(event(NameDiff.Change.ADDED, "a", 2), event(NameDiff.Change.ADDED, "c", 1)),
+            diff(new ArrayList<>(), names));
+        assertEquals(Arrays.asList(event(NameDiff.Change.REMOVED, "a", 2), event(NameDiff.Change.REMOVED, "c", 1)),
+            diff(names, new ArrayList<>()));
+        assertFalse(new NameDiff(new ArrayList<QualifiedName>().iterator(), new ArrayList<QualifiedName>().iterator()).hasNext());
+    }
+
+    @Test
+    public void testSharedNodes() {
+        QualifiedName base = QualifiedName.of("x","y");
+        List<QualifiedName> from = Arrays.asList(base, base.add("1"), base.add("2"), base.add("3"));
+        List<QualifiedName> to = Arrays.asList(base, base.add("1"), base.add("3"));
+        assertEquals(Arrays.asList(
+            event(NameDiff.Change.UNCHANGED, "x/y", 2),
+            event(NameDiff.Change.REMOVED, "x/y/2", 1),
+            event(NameDiff.Change.UNCHANGED, "x/y/3", 1)
+        ), diff(from, to));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testUnsorted() {
+        List<QualifiedName> from = Arrays.asList(QualifiedName.of("b"), QualifiedName.of("a"));
+        diff(from, new ArrayList<>());
+    }
+
+    private static QualifiedName randomName(Random random) {
+        QualifiedName result = QualifiedName.ROOT;
+        int depth = 1 + random.nextInt(4);
+        for (int i = 0; i < depth; i++) result = result.add(Integer.toString(random.nextInt(3)));
+        return result;
+    }
+
+    @Test
+    public void testRandomListings() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            TreeSet<QualifiedName> fromSet = new TreeSet<>(NameDiff.ORDER);
+            TreeSet<QualifiedName> toSet = new TreeSet<>(NameDiff.ORDER);
+            for (int i = 0; i < 30; i++) fromSet.add(randomName(random));
+            for (int i = 0; i < 30; i++) toSet.add(randomName(random));
+            List<QualifiedName> from = new ArrayList<>(fromSet);
+            List<QualifiedName> to = new ArrayList<>(toSet);
+            int i = 0, j = 0;
+            Set<QualifiedName> seen = new HashSet<>();
+            for (NameDiff.Event event : diff(from, to)) {
+                for (int k = 0; k < event.count; k++) {
+                    QualifiedName name;
+                    if (event.change == NameDiff.Change.ADDED) {
+                        name = to.get(j++);
+                        assertFalse(fromSet.contains(name));
+                    } else if (event.change == NameDiff.Change.REMOVED) {
+                        name = from.get(i++);
+                        assertFalse(toSet.contains(name));
+                    } else {
+                        name = from.get(i++);
+                        assertEquals(name, to.get(j++));
+                    }
+                    assertTrue(name.startsWith(event.name));
+                    assertTrue(seen.add(name));
+                }
+            }
+            assertEquals(from.size(), i);
+            assertEquals(to.size(), j);
+        }
+    }
+}
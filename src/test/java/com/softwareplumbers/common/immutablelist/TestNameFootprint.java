@@ -0,0 +1,115 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import org.junit.Test;
+
+public class TestNameFootprint {
+
+    private static final NameFootprint.Layout LAYOUT = new NameFootprint.Layout(4, 12, 8, true);
+
+    @Test
+    public void testCurrentLayout() {
+        NameFootprint.Layout layout = NameFootprint.Layout.current();
+        assertTrue(layout.referenceSize == 4 || layout.referenceSize == 8);
+        assertTrue(layout.objectAlignment >= 8);
+        assertTrue(layout.headerSize >= 8);
+        assertEquals(0, layout.shallowSize(QualifiedName.class) % layout.objectAlignment);
+    }
+
+    @Test
+    public void testSizes() {
+        // header + 3 references (parent, part, cache) = 24
+        assertEquals(24, LAYOUT.shallowSize(QualifiedName.class));
+        assertEquals(24, LAYOUT.arraySize(5, 1));
+        assertEquals(32, LAYOUT.arraySize(5, 2));
+        assertEquals(LAYOUT.shallowSize(String.class) + 24, LAYOUT.stringSize("abcde"));
+        assertEquals(LAYOUT.shallowSize(String.class) + 32, LAYOUT.stringSize("abcd\u0100"));
+        NameFootprint.Layout wide = new NameFootprint.Layout(8, 16, 16, false);
+        assertEquals(48, wide.shallowSize(QualifiedName.class));
+        assertEquals(32, wide.arraySize(5, 2));
+    }
+
+    @Test
+    public void testSharedPrefixesCountedOnce() {
+        QualifiedName base = QualifiedName.of("org","example","svc");
+        List<QualifiedName> names = new ArrayList<>();
+        for (int i = 0; i < 100; i++) names.add(base.add("item" + i));
+        NameFootprint footprint = new NameFootprint(LAYOUT);
+        for (QualifiedName name : names) footprint.add(name);
+        assertEquals(103, footprint.nodeCount());
+        assertEquals(103, footprint.stringCount());
+        assertEquals(103 * LAYOUT.shallowSize(QualifiedName.class), footprint.nodeBytes());
+        NameFootprint single = new NameFootprint(LAYOUT);
+        single.add(names.get(0));
+        assertTrue(footprint.bytes() < 100 * single.bytes());
+    }
+
+    @Test
+    public void testSharedStringsCountedOnce() {
+        String part = "same";
+        NameFootprint footprint = new NameFootprint(LAYOUT);
+        footprint.add(QualifiedName.of(part, part, part));
+        assertEquals(3, footprint.nodeCount());
+        assertEquals(1, footprint.stringCount());
+        assertEquals(LAYOUT.stringSize(part), footprint.stringBytes());
+    }
+
+    @Test
+    public void testIncremental() {
+        QualifiedName a = QualifiedName.of("x","y","a");
+        QualifiedName b = a.parent.add("b");
+        NameFootprint footprint = new NameFootprint(LAYOUT);
+        footprint.add(a);
+        long afterA = footprint.bytes();
+        footprint.add(b);
+        footprint.add(b);
+        footprint.remove(b);
+        assertEquals(4, footprint.nodeCount());
+        footprint.remove(b);
+        assertEquals(afterA, footprint.bytes());
+        footprint.remove(a);
+        assertEquals(0, footprint.bytes());
+        assertEquals(0, footprint.nodeCount());
+        assertEquals(0, footprint.stringCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRemoveUnknown() {
+        new NameFootprint(LAYOUT).remove(QualifiedName.of("x"));
+    }
+
+    @Test
+    public void testRemovePrefixOnly() {
+        QualifiedName name = QualifiedName.of("x","y","a");
+        NameFootprint footprint = new NameFootprint(LAYOUT);
+        footprint.add(name);
+        long bytes = footprint.bytes();
+        try {
+            footprint.remove(name.parent);
+            fail("removed a name which was not added");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(bytes, footprint.bytes());
+        assertEquals(3, footprint.nodeCount());
+        footprint.remove(name);
+        assertEquals(0, footprint.bytes());
+    }
+
+    @Test
+    public void testByPrefix() {
+        QualifiedName x = QualifiedName.of("x");
+        NameFootprint footprint = NameFootprint.of(Arrays.asList(x.add("a").add("1"), x.add("a").add("2"), x.add("b"), QualifiedName.of("y")));
+        SortedMap<QualifiedName,Long> breakdown = footprint.byPrefix(2);
+        assertEquals(Arrays.asList(QualifiedName.of("x"), QualifiedName.of("y"), QualifiedName.of("x","a"), QualifiedName.of("x","b")),
+            new ArrayList<>(breakdown.keySet()));
+        assertEquals(footprint.bytes(), breakdown.values().stream().mapToLong(Long::longValue).sum());
+    }
+}
@@ -0,0 +1,83 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+
+public class TestNameKeyCodec {
+
+    private static final String[] SEGMENTS = { "", "a", "ab", "b", "a\u0000", "~", "\u007f", "\u00e9", "\u407e", "\u407f", "\ud800", "\ue000", "\uffff", "a/b", "zz" };
+
+    private static List<QualifiedName> randomNames(long seed, int count) {
+        Random random = new Random(seed);
+        List<QualifiedName> names = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            QualifiedName name = QualifiedName.ROOT;
+            int depth = random.nextInt(4);
+            for (int j = 0; j < depth; j++) name = name.add(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            names.add(name);
+        }
+        return names;
+    }
+
+    @Test
+    public void testRoundTrip() {
+        for (QualifiedName name : randomNames(1, 200)) {
+            byte[] key = NameKeyCodec.encode(name);
+            assertEquals(name, NameKeyCodec.decode(key));
+            assertEquals(name.size(), NameKeyCodec.depth(key));
+        }
+    }
+
+    @Test
+    public void testOrderMatchesCompareTo() {
+        List<QualifiedName> names = randomNames(2, 300);
+        for (QualifiedName a : names) {
+            for (QualifiedName b : names) {
+                int expected = Integer.signum(a.compareTo(b));
+                int actual = Integer.signum(NameKeyCodec.compare(NameKeyCodec.encode(a), NameKeyCodec.encode(b)));
+                assertEquals(a + " " + b, expected, actual);
+            }
+        }
+    }
+
+    @Test
+    public void testPrefixRange() {
+        QualifiedName prefix = QualifiedName.of("a", "ab");
+        byte[] start = NameKeyCodec.prefixStart(prefix, 3);
+        byte[] end = NameKeyCodec.prefixEnd(prefix, 3);
+        for (QualifiedName name : randomNames(3, 500)) {
+            byte[] key = NameKeyCodec.encode(name);
+            boolean inRange = NameKeyCodec.compare(start, key) <= 0 && NameKeyCodec.compare(key, end) < 0;
+            assertEquals(name.toString(), name.size() == 3 && name.startsWith(prefix), inRange);
+        }
+    }
+
+    @Test
+    public void testDeepName() {
+        QualifiedName name = QualifiedName.ROOT;
+        for (int i = 0; i < 300; i++) name = name.add("x" + i);
+        byte[] key = NameKeyCodec.encode(name);
+        assertEquals(300, NameKeyCodec.depth(key));
+        assertEquals(name, NameKeyCodec.decode(key));
+        assertTrue(NameKeyCodec.compare(NameKeyCodec.encode(name.parent), key) < 0);
+    }
+
+    @Test
+    public void testCursor() {
+        NameKeyCodec.Cursor cursor = new NameKeyCodec.Cursor(NameKeyCodec.encode(QualifiedName.of("svc", "\u407f\u00e9", "users")));
+        assertEquals(3, cursor.remaining());
+        assertEquals(0, cursor.compareNext("svc"));
+        cursor.skip();
+        assertTrue(cursor.compareNext("user") > 0);
+        assertFalse(cursor.hasNext());
+        cursor = new NameKeyCodec.Cursor(NameKeyCodec.encode(QualifiedName.of("ab", "b")));
+        assertTrue(cursor.compareNext("abc") < 0);
+        assertEquals("b", cursor.next());
+    }
+}
@@ -0,0 +1,146 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import org.junit.Test;
+
+public class TestNamePartitioner {
+
+    private static NamePartitioner<String> partitioner(int splitDepth, long hotThreshold, int shards) {
+        NamePartitioner<String> result = new NamePartitioner<>(splitDepth, 64, hotThreshold, Function.identity());
+        for (int i = 0; i < shards; i++) result.addShard("shard" + i);
+        return result;
+    }
+
+    @Test
+    public void testPartitionOf() {
+        NamePartitioner<String> partitioner = partitioner(2, 0, 4);
+        assertEquals(QualifiedName.of("svc","api"), partitioner.partitionOf(QualifiedName.of("svc","api","users","12")));
+        assertEquals(QualifiedName.of("svc"), partitioner.partitionOf(QualifiedName.of("svc")));
+        assertEquals(QualifiedName.ROOT, partitioner.partitionOf(QualifiedName.ROOT));
+    }
+
+    @Test
+    public void testSubtreeLocality() {
+        NamePartitioner<String> partitioner = partitioner(2, 0, 8);
+        String shard = partitioner.shardOf(QualifiedName.of("svc","api"));
+        for (int i = 0; i < 100; i++)
+            assertEquals(shard, partitioner.shardOf(QualifiedName.of("svc","api","users",Integer.toString(i))));
+    }
+
+    @Test
+    public void testPartitionsSpread() {
+        NamePartitioner<String> partitioner = partitioner(1, 0, 4);
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < 200; i++) used.add(partitioner.shardOf(QualifiedName.of("tenant" + i, "x")));
+        assertEquals(4, used.size());
+    }
+
+    @Test
+    public void testSplitAndMerge() {
+        NamePartitioner<String> partitioner = partitioner(1, 0, 4);
+        QualifiedName prefix = QualifiedName.of("svc");
+        assertTrue(partitioner.split(prefix));
+        assertFalse(partitioner.split(prefix));
+        assertEquals(QualifiedName.of("svc","api"), partitioner.partitionOf(QualifiedName.of("svc","api","users")));
+        assertEquals(QualifiedName.of("svc","web"), partitioner.partitionOf(QualifiedName.of("svc","web")));
+        assertEquals(QualifiedName.of("svc"), partitioner.partitionOf(QualifiedName.of("svc")));
+        assertEquals(partitioner.shardOf(QualifiedName.of("svc","api")), partitioner.shardOf(QualifiedName.of("svc","api","users")));
+        assertTrue(partitioner.split(QualifiedName.of("svc","api")));
+        assertEquals(QualifiedName.of("svc","api","users"), partitioner.partitionOf(QualifiedName.of("svc","api","users","12")));
+        assertEquals(2, partitioner.splitPrefixes().size());
+        assertTrue(partitioner.merge(prefix));
+        assertFalse(partitioner.merge(prefix));
+        assertEquals(QualifiedName.of("svc"), partitioner.partitionOf(QualifiedName.of("svc","api","users")));
+    }
+
+    @Test
+    public void testMinimalMovementOnAddShard() {
+        NamePartitioner<String> partitioner = partitioner(1, 0, 4);
+        Map<QualifiedName,String> before = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            QualifiedName name = QualifiedName.of("tenant" + i);
+            before.put(name, partitioner.shardOf(name));
+        }
+        partitioner.addShard("shard4");
+        int moved = 0;
+        for (Map.Entry<QualifiedName,String> entry : before.entrySet()) {
+            String after = partitioner.shardOf(entry.getKey());
+            if (!after.equals(entry.getValue())) {
+                assertEquals("shard4", after);
+                moved++;
+            }
+        }
+        assertTrue(moved > 0);
+        assertTrue(moved < 400);
+    }
+
+    @Test
+    public void testRemoveShard() {
+        NamePartitioner<String> partitioner = partitioner(1, 0, 3);
+        partitioner.removeShard("shard1");
+        for (int i = 0; i < 100; i++)
+            assertFalse("shard1".equals(partitioner.shardOf(QualifiedName.of("tenant" + i))));
+    }
+
+    @Test
+    public void testHotPrefixSplit() {
+        NamePartitioner<String> partitioner = partitioner(1, 10, 4);
+        QualifiedName name = QualifiedName.of("svc","api","users");
+        boolean split = false;
+        for (int i = 0; i < 11; i++) split |= partitioner.recordAccess(name);
+        assertTrue(split);
+        assertEquals(QualifiedName.of("svc","api"), partitioner.partitionOf(name));
+    }
+
+    @Test
+    public void testDecay() {
+        NamePartitioner<String> partitioner = partitioner(1, 10, 4);
+        QualifiedName name = QualifiedName.of("svc","api");
+        for (int i = 0; i < 10; i++) assertFalse(partitioner.recordAccess(name));
+        partitioner.decay();
+        for (int i = 0; i < 5; i++) assertFalse(partitioner.recordAccess(name));
+        assertTrue(partitioner.recordAccess(name));
+    }
+
+    /** Shard type with identity hashCode */
+    private static class Node {
+        final String name;
+        Node(String name) { this.name = name; }
+    }
+
+    @Test
+    public void testRoutingIndependentOfShardIdentity() {
+        NamePartitioner<Node> first = new NamePartitioner<>(1, 64, 0, node -> node.name);
+        NamePartitioner<Node> second = new NamePartitioner<>(1, 64, 0, node -> node.name);
+        for (int i = 0; i < 4; i++) {
+            first.addShard(new Node("node" + i));
+            second.addShard(new Node("node" + i));
+        }
+        for (int i = 0; i < 200; i++) {
+            QualifiedName name = QualifiedName.of("tenant" + i);
+            assertEquals(first.shardOf(name).name, second.shardOf(name).name);
+        }
+    }
+
+    @Test
+    public void testRingIsStable() {
+        // Golden assignments, computed from the FNV-1a hashes of the shard keys. They must
+        // not depend on the JVM or on hashCode, so any change to them breaks routing between
+        // processes which do not share the same version of the partitioner.
+        NamePartitioner<String> partitioner = partitioner(1, 0, 4);
+        String[][] expected = {
+            { "alpha", "shard2" }, { "beta", "shard0" }, { "gamma", "shard1" }, { "delta", "shard2" },
+            { "epsilon", "shard0" }, { "zeta", "shard3" }, { "eta", "shard0" }, { "theta", "shard3" }
+        };
+        for (String[] assignment : expected)
+            assertEquals(assignment[0], assignment[1], partitioner.shardOf(QualifiedName.of(assignment[0], "x")));
+    }
+}
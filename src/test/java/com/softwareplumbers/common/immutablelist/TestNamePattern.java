@@ -0,0 +1,78 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class TestNamePattern {
+
+    @Test
+    public void testLiteral() {
+        NamePattern pattern = NamePattern.compile(QualifiedName.of("app","api","error"));
+        assertTrue(pattern.isLiteral());
+        assertTrue(pattern.matches(QualifiedName.of("app","api","error")));
+        assertFalse(pattern.matches(QualifiedName.of("app","api")));
+        assertFalse(pattern.matches(QualifiedName.of("x","app","api","error")));
+        assertFalse(pattern.matches(QualifiedName.ROOT));
+    }
+
+    @Test
+    public void testAnySegment() {
+        NamePattern pattern = NamePattern.compile(QualifiedName.of("*","metrics","*"));
+        assertFalse(pattern.isLiteral());
+        assertTrue(pattern.matches(QualifiedName.of("x","metrics","y")));
+        assertFalse(pattern.matches(QualifiedName.of("metrics","y")));
+        assertFalse(pattern.matches(QualifiedName.of("x","metrics","y","z")));
+        assertFalse(pattern.matches(QualifiedName.of("x","y","z")));
+    }
+
+    @Test
+    public void testAnySegments() {
+        NamePattern pattern = NamePattern.compile(QualifiedName.of("app","**","error"));
+        assertTrue(pattern.matches(QualifiedName.of("app","error")));
+        assertTrue(pattern.matches(QualifiedName.of("app","x","error")));
+        assertTrue(pattern.matches(QualifiedName.of("app","x","y","error")));
+        assertTrue(pattern.matches(QualifiedName.of("app","error","error")));
+        assertFalse(pattern.matches(QualifiedName.of("app","x","y")));
+        assertFalse(pattern.matches(QualifiedName.of("x","app","error")));
+    }
+
+    @Test
+    public void testLeadingAndTrailingAnySegments() {
+        NamePattern pattern = NamePattern.compile(QualifiedName.of("**","api","**"));
+        assertTrue(pattern.matches(QualifiedName.of("api")));
+        assertTrue(pattern.matches(QualifiedName.of("x","api")));
+        assertTrue(pattern.matches(QualifiedName.of("api","y","z")));
+        assertFalse(pattern.matches(QualifiedName.of("x","y")));
+        assertTrue(NamePattern.compile(QualifiedName.of("**")).matches(QualifiedName.ROOT));
+        assertFalse(NamePattern.compile(QualifiedName.of("*")).matches(QualifiedName.ROOT));
+    }
+
+    @Test
+    public void testConsecutiveAnySegmentsNormalized() {
+        NamePattern pattern = NamePattern.compile(QualifiedName.of("a","**","**","b"));
+        assertEquals(QualifiedName.of("a","**","b"), pattern.pattern);
+        assertEquals(NamePattern.compile(QualifiedName.of("a","**","b")), pattern);
+        assertTrue(pattern.matches(QualifiedName.of("a","b")));
+    }
+
+    @Test
+    public void testLongPattern() {
+        QualifiedName patternName = QualifiedName.ROOT;
+        QualifiedName name = QualifiedName.ROOT;
+        for (int i = 0; i < 100; i++) {
+            patternName = patternName.add("**").add("x" + i);
+            name = name.add("y").add("x" + i).add("z").add("x" + i);
+        }
+        NamePattern pattern = NamePattern.compile(patternName);
+        assertTrue(pattern.matches(name));
+        assertFalse(pattern.matches(name.add("z")));
+        assertTrue(NamePattern.compile(patternName.add("**")).matches(name.add("z")));
+    }
+
+    @Test
+    public void testQualifiedNameMatches() {
+        assertTrue(QualifiedName.of("app","x","error").matches(NamePattern.compile("app/**/error", "/")));
+    }
+}
@@ -0,0 +1,87 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+public class TestNamePatternIndex {
+
+    @Test
+    public void testMatch() {
+        NamePatternIndex<String> index = new NamePatternIndex<>();
+        index.add(QualifiedName.of("app","**","error"), "errors");
+        index.add(QualifiedName.of("*","metrics","*"), "metrics");
+        index.add(QualifiedName.of("app","api","error"), "api-errors");
+        index.add(QualifiedName.of("**"), "everything");
+
+        assertEquals(new HashSet<>(Arrays.asList("errors","api-errors","everything")), index.match(QualifiedName.of("app","api","error")));
+        assertEquals(new HashSet<>(Arrays.asList("errors","everything")), index.match(QualifiedName.of("app","error")));
+        assertEquals(new HashSet<>(Arrays.asList("metrics","everything")), index.match(QualifiedName.of("x","metrics","y")));
+        assertEquals(Collections.singleton("everything"), index.match(QualifiedName.of("x","metrics")));
+    }
+
+    @Test
+    public void testMatchAgreesWithNamePattern() {
+        QualifiedName[] patterns = {
+            QualifiedName.of("a","**","b"), QualifiedName.of("**","b","**"), QualifiedName.of("*","*"),
+            QualifiedName.of("a","*","**","b"), QualifiedName.of("**","a","**","a","**")
+        };
+        QualifiedName[] names = {
+            QualifiedName.of("a","b"), QualifiedName.of("a","a","b"), QualifiedName.of("b"), QualifiedName.of("a","x","y","b"),
+            QualifiedName.of("a","a"), QualifiedName.of("x","a","y","a","z"), QualifiedName.ROOT
+        };
+        NamePatternIndex<QualifiedName> index = new NamePatternIndex<>();
+        for (QualifiedName pattern : patterns) index.add(pattern, pattern);
+        for (QualifiedName name : names) {
+            HashSet<QualifiedName> expected = new HashSet<>();
+            for (QualifiedName pattern : patterns) 
+                if (NamePattern.compile(pattern).matches(name)) expected.add(pattern);
+            assertEquals(expected, index.match(name));
+            assertEquals(!expected.isEmpty(), index.matchesAny(name));
+        }
+    }
+
+    @Test
+    public void testRemove() {
+        NamePatternIndex<String> index = new NamePatternIndex<>();
+        index.add(QualifiedName.of("a","*"), "one");
+        index.add(QualifiedName.of("a","*"), "two");
+        assertTrue(index.remove(QualifiedName.of("a","*"), "one"));
+        assertFalse(index.remove(QualifiedName.of("a","*"), "one"));
+        assertEquals(Collections.singleton("two"), index.match(QualifiedName.of("a","b")));
+        assertTrue(index.remove(QualifiedName.of("a","*"), "two"));
+        assertTrue(index.isEmpty());
+        assertFalse(index.matchesAny(QualifiedName.of("a","b")));
+    }
+
+    @Test
+    public void testConcurrentAddAndRemove() throws InterruptedException {
+        NamePatternIndex<Integer> index = new NamePatternIndex<>();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int t = 0; t < 4; t++) {
+            final int thread = t;
+            executor.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    QualifiedName pattern = QualifiedName.of("svc", "**", "p" + (i % 10));
+                    index.add(pattern, thread);
+                    index.match(QualifiedName.of("svc","x","p" + (i % 10)));
+                    index.remove(pattern, thread);
+                }
+                index.add(QualifiedName.of("svc", "*", "t" + thread), thread);
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        for (int t = 0; t < 4; t++)
+            assertEquals(Collections.singleton(t), index.match(QualifiedName.of("svc", "x", "t" + t)));
+        assertTrue(index.match(QualifiedName.of("svc","x","p1")).isEmpty());
+    }
+}
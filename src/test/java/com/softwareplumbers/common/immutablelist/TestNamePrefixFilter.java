@@ -0,0 +1,89 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class TestNamePrefixFilter {
+
+    private static QualifiedName name(int i) {
+        return QualifiedName.of("tenant" + (i % 50), "dept" + (i % 7), "item" + i);
+    }
+
+    @Test
+    public void testNoFalseNegatives() {
+        NamePrefixFilter filter = new NamePrefixFilter(20000, 0.01);
+        for (int i = 0; i < 5000; i++) filter.add(name(i));
+        for (int i = 0; i < 5000; i++) {
+            QualifiedName name = name(i);
+            assertTrue(filter.mayContain(name));
+            assertTrue(filter.mayContainPrefix(name));
+            assertTrue(filter.mayContainPrefix(name.parent));
+            assertTrue(filter.mayContainPrefix(name.parent.parent));
+        }
+        assertTrue(filter.mayContainPrefix(QualifiedName.ROOT));
+    }
+
+    @Test
+    public void testPrefixIsNotExactName() {
+        NamePrefixFilter filter = new NamePrefixFilter(100, 0.001);
+        filter.add(QualifiedName.of("svc","api","users"));
+        assertTrue(filter.mayContainPrefix(QualifiedName.of("svc","api")));
+        assertFalse(filter.mayContain(QualifiedName.of("svc","api")));
+        assertFalse(filter.mayContainPrefix(QualifiedName.of("svc","web")));
+        assertFalse(filter.mayContainPrefix(QualifiedName.of("api")));
+    }
+
+    @Test
+    public void testFalsePositiveRate() {
+        NamePrefixFilter filter = new NamePrefixFilter(20000, 0.01);
+        for (int i = 0; i < 5000; i++) filter.add(name(i));
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++)
+            if (filter.mayContainPrefix(QualifiedName.of("other" + i, "x"))) falsePositives++;
+        assertTrue("false positives: " + falsePositives, falsePositives < 300);
+    }
+
+    @Test
+    public void testFalsePositiveRateMeetsTarget() {
+        for (double target : new double[] { 0.01, 0.001 }) {
+            NamePrefixFilter filter = new NamePrefixFilter(30000, 10000, target);
+            for (int i = 0; i < 10000; i++) filter.add(QualifiedName.of("tenant" + i, "dept" + i, "item" + i));
+            int falsePositives = 0;
+            int probes = 100000;
+            for (int i = 0; i < probes; i++)
+                if (filter.mayContainPrefix(QualifiedName.of("absent" + i))) falsePositives++;
+            assertTrue("rate " + (double)falsePositives / probes + " for target " + target, falsePositives < probes * target * 1.5);
+        }
+    }
+
+    @Test
+    public void testDefaultAllowsForNames() {
+        // 30000 prefixes from 10000 names, each name also inserting an exact fingerprint
+        NamePrefixFilter filter = new NamePrefixFilter(30000, 0.01);
+        for (int i = 0; i < 10000; i++) filter.add(QualifiedName.of("tenant" + i, "dept" + i, "item" + i));
+        int falsePositives = 0;
+        for (int i = 0; i < 100000; i++)
+            if (filter.mayContainPrefix(QualifiedName.of("absent" + i))) falsePositives++;
+        assertTrue("false positives: " + falsePositives, falsePositives < 1000);
+    }
+
+    @Test
+    public void testSerialization() {
+        NamePrefixFilter filter = new NamePrefixFilter(1000, 0.01);
+        for (int i = 0; i < 200; i++) filter.add(name(i));
+        NamePrefixFilter copy = NamePrefixFilter.fromByteArray(filter.toByteArray());
+        assertEquals(filter.bitSize(), copy.bitSize());
+        for (int i = 0; i < 400; i++) {
+            assertEquals(filter.mayContain(name(i)), copy.mayContain(name(i)));
+            assertEquals(filter.mayContainPrefix(name(i).parent), copy.mayContainPrefix(name(i).parent));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSerialization() {
+        NamePrefixFilter.fromByteArray(new byte[] { 0, 0, 0, 1, 0, 0, 0, 1 });
+    }
+}
@@ -0,0 +1,70 @@
+package com.softwareplumbers.common.immutablelist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+
+public class TestNameSymbolTable {
+
+    @Test
+    public void testIdOf() {
+        NameSymbolTable table = new NameSymbolTable();
+        int id = table.idOf(QualifiedName.of("svc","api","users"));
+        assertEquals(4, table.size());
+        assertEquals(id, table.idOf(QualifiedName.of("svc","api","users")));
+        assertEquals(QualifiedName.of("svc","api","users"), table.nameOf(id));
+        assertEquals(3, table.depth(id));
+        assertEquals("users", table.part(id));
+        assertEquals(table.find(QualifiedName.of("svc","api")), table.parentId(id));
+        assertEquals(-1, table.find(QualifiedName.of("svc","web")));
+        assertEquals(NameSymbolTable.ROOT_ID, table.idOf(QualifiedName.ROOT));
+        assertEquals(-1, table.parentId(NameSymbolTable.ROOT_ID));
+        assertNull(table.part(NameSymbolTable.ROOT_ID));
+        assertEquals(QualifiedName.ROOT, table.nameOf(NameSymbolTable.ROOT_ID));
+    }
+
+    @Test
+    public void testSharedPrefixesStoredOnce() {
+        NameSymbolTable table = new NameSymbolTable();
+        table.idOf(QualifiedName.of("svc","api","users"));
+        table.idOf(QualifiedName.of("svc","api","orders"));
+        table.idOf(QualifiedName.of("svc","web"));
+        assertEquals(6, table.size());
+    }
+
+    @Test
+    public void testGrowth() {
+        NameSymbolTable table = new NameSymbolTable(4);
+        for (int i = 0; i < 5000; i++) table.idOf(QualifiedName.of("n" + (i % 50), "longer segment " + i));
+        assertEquals(5051, table.size());
+        for (int i = 0; i < 5000; i++) {
+            QualifiedName name = QualifiedName.of("n" + (i % 50), "longer segment " + i);
+            assertEquals(name, table.nameOf(table.find(name)));
+        }
+    }
+
+    @Test
+    public void testConcurrentIdOf() throws InterruptedException {
+        NameSymbolTable table = new NameSymbolTable(16);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        AtomicInteger errors = new AtomicInteger();
+        for (int t = 0; t < 4; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 2000; i++) {
+                    QualifiedName name = QualifiedName.of("a" + (i % 13), "b" + i);
+                    if (!name.equals(table.nameOf(table.idOf(name)))) errors.incrementAndGet();
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        assertEquals(0, errors.get());
+        assertEquals(1 + 13 + 2000, table.size());
+    }
+}
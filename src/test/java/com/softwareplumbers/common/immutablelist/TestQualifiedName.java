@@ -5,11 +5,18 @@
  */
 package com.softwareplumbers.common.immutablelist;
 
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.SortedMap;
 import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 
@@ -48,5 +55,109 @@ public class TestQualifiedName {
 		assertTrue(shouldMatch1.matches(pattern, true));
 		assertTrue(shouldMatch2.matches(pattern, true));
 		assertFalse(shouldntMatch.matches(pattern, true));
-	}    
+	}
+    
+    @Test
+    public void testFixedArityOf() {
+        assertEquals(QualifiedName.of("a").add("b"), QualifiedName.of("a","b"));
+        assertEquals(QualifiedName.of("a").add("b").add("c"), QualifiedName.of("a","b","c"));
+        assertEquals(QualifiedName.of("a").add("b").add("c").add("d"), QualifiedName.of("a","b","c","d"));
+        assertEquals(QualifiedName.of("a").add("b").add("c").add("d").add("e"), QualifiedName.of("a","b","c","d","e"));
+        assertEquals(QualifiedName.of("a"), QualifiedName.of("a","b","c").parent.parent);
+        assertTrue(QualifiedName.of("a","b").parent.parent.isEmpty());
+    }
+    
+    @Test
+    public void testParseWithLiteralSeparator() {
+        assertEquals(QualifiedName.of("a","b","c"), QualifiedName.parse("a.b.c", ".", SegmentPool.NONE));
+        assertEquals(QualifiedName.of("a.b","c"), QualifiedName.parse("a\\.b.c", ".", SegmentPool.NONE));
+        assertEquals(QualifiedName.of("a","b"), QualifiedName.parse("a::b", "::", SegmentPool.NONE));
+        assertEquals(QualifiedName.of("a","b.c"), QualifiedName.parse("a[.]b.c", "[.]", SegmentPool.NONE));
+    }
+    
+    @Test
+    public void testParseWithRegexSeparator() {
+        assertEquals(QualifiedName.of("a","b","c"), QualifiedName.parse("a.b/c", "[/.]"));
+        assertEquals(QualifiedName.of("a","b"), QualifiedName.parse("a.b", "\\."));
+        assertEquals(QualifiedName.of("a","b","c"), QualifiedName.parse("abc", ""));
+        assertEquals(QualifiedName.of("a/b"), QualifiedName.ROOT.addParsed(Function.identity(), "a/b", "/", ""));
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testLiteralParseRejectsEmptySeparator() {
+        QualifiedName.parse("abc", "", SegmentPool.NONE);
+    }
+    
+    @Test(expected = IllegalArgumentException.class)
+    public void testLiteralParseRejectsEmptyEscape() {
+        QualifiedName.ROOT.addParsed(Function.identity(), "a/b", "/", "", SegmentPool.NONE);
+    }
+    
+    @Test
+    public void testJoinParseRoundtripWithEscapes() {
+        QualifiedName horrible = QualifiedName.of("a\\", "\\/b", "c\\\\/");
+        assertEquals(horrible, QualifiedName.parse(horrible.join("/"), "/", SegmentPool.NONE));
+        assertEquals(horrible, QualifiedName.parse(horrible.join("/"), "/", SegmentPool.bounded(16)));
+    }
+    
+    @Test
+    public void testParseWithSegmentPool() {
+        SegmentPool pool = SegmentPool.bounded(16);
+        QualifiedName first = QualifiedName.parse("/api/v1/users", "/", pool);
+        QualifiedName second = QualifiedName.parse(new StringBuilder("/api/v2/users"), "/", pool);
+        assertEquals(QualifiedName.of("api","v2","users"), second);
+        assertSame(first.part, second.part);
+        assertSame(first.parent.parent.part, second.parent.parent.part);
+        assertSame(first.part, pool.intern("users"));
+    }
+    
+    @Test
+    public void testBoundedSegmentPoolStaysBounded() {
+        BoundedSegmentPool pool = new BoundedSegmentPool(8, 4);
+        for (int i = 0; i < 1000; i++) assertEquals("s" + i % 100, pool.intern("s" + i % 100));
+        assertTrue(pool.size() <= 8);
+        String longSegment = "toolong";
+        assertEquals(longSegment, pool.intern(longSegment));
+    }
+    
+    @Test
+    public void testToQualifiedName() {
+        assertEquals(QualifiedName.of("a","b","c"), Stream.of("a","b","c").collect(QualifiedName.toQualifiedName()));
+        assertEquals(QualifiedName.of("x","y"), Stream.of("a.x","b.y").parallel().map(s -> s.substring(2)).collect(QualifiedName.toQualifiedName()));
+    }
+    
+    @Test
+    public void testGroupingByPrefix() {
+        SortedMap<QualifiedName,List<QualifiedName>> groups = Stream.of(
+            QualifiedName.of("svc","api","users"), QualifiedName.of("svc","api","orders"), 
+            QualifiedName.of("svc","web","index"), QualifiedName.of("svc")
+        ).parallel().collect(QualifiedName.groupingByPrefix(2));
+        assertEquals(3, groups.size());
+        assertEquals(Arrays.asList(QualifiedName.of("svc","api","users"), QualifiedName.of("svc","api","orders")), groups.get(QualifiedName.of("svc","api")));
+        assertEquals(Arrays.asList(QualifiedName.of("svc","web","index")), groups.get(QualifiedName.of("svc","web")));
+        assertEquals(Arrays.asList(QualifiedName.of("svc")), groups.get(QualifiedName.of("svc")));
+    }
+    
+    @Test
+    public void testRender() {
+        AbstractImmutableList.Renderer<String> slashes = new AbstractImmutableList.Renderer<>(String::toUpperCase, "/", "\\");
+        QualifiedName name = QualifiedName.of("a","b/c","d");
+        assertEquals(name.join(String::toUpperCase, "/"), name.render(slashes));
+        assertSame(name.render(slashes), name.render(slashes));
+        QualifiedName child = name.add("e");
+        assertEquals("A/B\\/C/D/E", child.render(slashes));
+        assertTrue(child.render(slashes).startsWith(name.parent.render(slashes)));
+    }
+    
+    @Test
+    public void testToStringCachingIsOptIn() {
+        QualifiedName name = QualifiedName.of("a","b.c","d");
+        assertEquals("a.b\\.c.d", name.toString());
+        assertNotSame(name.toString(), name.toString());
+        assertEquals(name.toString(), name.render(AbstractImmutableList.DEFAULT_RENDERER));
+        assertSame(name.toString(), name.toString());
+        QualifiedName child = name.add("e");
+        assertEquals("a.b\\.c.d.e", child.toString());
+        assertSame(child.toString(), child.toString());
+    }
 }